@@ -0,0 +1,300 @@
+package com.database.indexing;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Thread-safe B-Tree that changes its degree to suit the observed workload.
+ * Reads take a read lock and writes a write lock on the current tree. Operations are
+ * counted, and after every window of operations the read/write mix of that window is
+ * priced with a {@link DegreeTuner.Calibration}. If another degree is clearly cheaper
+ * for the mix, the tree is rebuilt at that degree on a background thread.
+ *
+ * A rebuild copies the entries under the read lock (so reads continue), bulk loads a
+ * new tree without holding any lock while writes are recorded in a log, and finally
+ * replays the log onto the new tree and swaps it in under the write lock. Readers and
+ * writers are only paused for the copy and the replay, never for the build.
+ */
+public class AdaptiveBTree {
+    public static final int DEFAULT_WINDOW = 100000;
+    public static final double DEFAULT_FILL = 0.9;
+    private static final double MIN_GAIN = 0.1; // Rebuild only for at least 10% lower estimated cost
+
+    private static final int INSERT = 0;
+    private static final int DELETE = 1;
+
+    private final DegreeTuner.Calibration calibration;
+    private final int window;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicLong operations = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+    private final Object rebuildMonitor = new Object(); // One rebuild at a time
+    private BTree tree;                 // Guarded by lock
+    private IntList log;                // Writes made during a rebuild (op, key, value), or null; guarded by lock
+    private long windowWrites;          // Write count at the start of the current window
+    private volatile double writeFraction;
+    private volatile Thread rebuilder;
+    private volatile Throwable rebuildFailure; // Error of the last background rebuild, until reported
+    private volatile long rebuilds;
+
+    /**
+     * Constructor to create an empty adaptive tree.
+     * @param calibration Measured costs of the degrees to choose from.
+     */
+    public AdaptiveBTree(DegreeTuner.Calibration calibration) {
+        this(calibration, calibration.getBestDegree(0.5), DEFAULT_WINDOW);
+    }
+
+    /**
+     * Constructor to create an empty adaptive tree.
+     * @param calibration Measured costs of the degrees to choose from.
+     * @param initialDegree Degree to start with.
+     * @param window Number of operations between workload checks.
+     */
+    public AdaptiveBTree(DegreeTuner.Calibration calibration, int initialDegree, int window) {
+        if (window <= 0) throw new IllegalArgumentException("Window must be positive");
+        this.calibration = calibration;
+        this.window = window;
+        this.tree = new BTree(initialDegree);
+    }
+
+    /**
+     * Inserts a key and its value.
+     * @param key The key to insert.
+     * @param value The value stored with the key.
+     */
+    public void insert(int key, int value) {
+        lock.writeLock().lock();
+        try {
+            tree.insert(key, value);
+            if (log != null) record(INSERT, key, value);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        countWrite();
+    }
+
+    /**
+     * Deletes one occurrence of a key.
+     * @param key The key to delete.
+     * @return True if the key was found.
+     */
+    public boolean delete(int key) {
+        boolean found;
+        lock.writeLock().lock();
+        try {
+            found = tree.delete(key);
+            if (found && log != null) record(DELETE, key, 0);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        countWrite();
+        return found;
+    }
+
+    /**
+     * Searches for a key.
+     * @param key The key to search for.
+     * @return True if the key is found.
+     */
+    public boolean search(int key) {
+        boolean found;
+        lock.readLock().lock();
+        try {
+            found = tree.search(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+        countRead();
+        return found;
+    }
+
+    /**
+     * Looks up the value stored with a key.
+     * @param key The key to look up.
+     * @param defaultValue Value returned when the key is absent.
+     * @return The stored value, or defaultValue.
+     */
+    public int get(int key, int defaultValue) {
+        int value;
+        lock.readLock().lock();
+        try {
+            value = tree.get(key, defaultValue);
+        } finally {
+            lock.readLock().unlock();
+        }
+        countRead();
+        return value;
+    }
+
+    /**
+     * Counts the keys in [low, high].
+     * @param low Lower bound (inclusive).
+     * @param high Upper bound (inclusive).
+     * @return Number of keys in the range.
+     */
+    public int countRange(int low, int high) {
+        int count;
+        lock.readLock().lock();
+        try {
+            count = tree.countRange(low, high);
+        } finally {
+            lock.readLock().unlock();
+        }
+        countRead();
+        return count;
+    }
+
+    /**
+     * Rebuilds the tree at a new degree on the calling thread, while other threads keep
+     * using the old tree. Does nothing if the tree already has this degree. If the build
+     * fails, the old tree stays in place and stops logging writes.
+     * @param degree The new degree; need not be one of the calibrated degrees.
+     * @throws IllegalArgumentException If the degree is less than 2.
+     */
+    public void rebuild(int degree) {
+        if (degree < 2) throw new IllegalArgumentException("Degree must be at least 2");
+        synchronized (rebuildMonitor) {
+            int[] keys;
+            int[] values;
+            lock.readLock().lock();
+            try {
+                if (tree.getDegree() == degree) return;
+                int size = tree.countRange(Integer.MIN_VALUE, Integer.MAX_VALUE);
+                keys = new int[size];
+                values = new int[size];
+                int[] filled = new int[1];
+                tree.forEachInRange(Integer.MIN_VALUE, Integer.MAX_VALUE, (key, value) -> {
+                    keys[filled[0]] = key;
+                    values[filled[0]++] = value;
+                });
+                log = new IntList(); // Writers are excluded until the copy is done, so none is lost
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            boolean swapped = false;
+            try {
+                BTree rebuilt = BTree.bulkLoad(degree, keys, values, keys.length, DEFAULT_FILL);
+
+                lock.writeLock().lock();
+                try {
+                    IntList pending = log;
+                    log = null;
+                    for (int i = 0; pending != null && i < pending.size(); i += 3) {
+                        if (pending.get(i) == INSERT) rebuilt.insert(pending.get(i + 1), pending.get(i + 2));
+                        else rebuilt.delete(pending.get(i + 1));
+                    }
+                    tree = rebuilt;
+                    rebuilds++;
+                    swapped = true;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            } finally {
+                if (!swapped) {
+                    // Stop logging, or the log would grow with every write until the next rebuild
+                    lock.writeLock().lock();
+                    log = null;
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits for a background rebuild, if one is running, to finish.
+     * @throws IllegalStateException If the background rebuild failed; the failure is the
+     * cause and is reported only once.
+     */
+    public void awaitRebuild() {
+        Thread thread = rebuilder;
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        Throwable failure = rebuildFailure;
+        if (failure != null) {
+            rebuildFailure = null;
+            throw new IllegalStateException("Background rebuild failed", failure);
+        }
+    }
+
+    public int getDegree() {
+        lock.readLock().lock();
+        try {
+            return tree.getDegree();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the write fraction measured over the last complete window.
+     * @return Fraction of operations that were writes.
+     */
+    public double getWriteFraction() {
+        return writeFraction;
+    }
+
+    public long getRebuildCount() {
+        return rebuilds;
+    }
+
+    /**
+     * Appends a write to the rebuild log. Caller holds the write lock.
+     */
+    private void record(int op, int key, int value) {
+        log.add(op);
+        log.add(key);
+        log.add(value);
+    }
+
+    private void countRead() {
+        if (operations.incrementAndGet() % window == 0) adapt();
+    }
+
+    private void countWrite() {
+        writes.incrementAndGet();
+        if (operations.incrementAndGet() % window == 0) adapt();
+    }
+
+    /**
+     * Closes the current window: measures its read/write mix and starts a background
+     * rebuild if another degree is clearly cheaper for it.
+     */
+    private synchronized void adapt() {
+        long nowWrites = writes.get();
+        double fraction = Math.min(1.0, (double) (nowWrites - windowWrites) / window);
+        windowWrites = nowWrites;
+        writeFraction = fraction;
+
+        Thread running = rebuilder;
+        if (running != null && running.isAlive()) return;
+        int current = getDegree();
+        int best = calibration.getBestDegree(fraction);
+        if (best == current) return;
+        double currentCost;
+        try {
+            currentCost = calibration.getCost(current, fraction);
+        } catch (IllegalArgumentException e) {
+            currentCost = Double.MAX_VALUE; // Started at an uncalibrated degree
+        }
+        if (calibration.getCost(best, fraction) > (1 - MIN_GAIN) * currentCost) return;
+
+        Thread thread = new Thread(() -> {
+            try {
+                rebuild(best);
+            } catch (Throwable t) {
+                rebuildFailure = t; // Reported by awaitRebuild(); the old tree keeps serving
+            }
+        }, "btree-rebuild");
+        thread.setDaemon(true);
+        rebuilder = thread;
+        thread.start();
+    }
+}
@@ -0,0 +1,529 @@
+package com.database.indexing;
+
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Adaptive radix tree (ART) for 32-bit int keys.
+ * A key is split into four bytes that are consumed one per level. Inner nodes grow
+ * and shrink between 4, 16, 48 and 256 child slots to match their fan-out, chains
+ * of single-child nodes are collapsed into a compressed prefix, and leaves are only
+ * created where keys diverge. Each key is stored at most once.
+ */
+public class AdaptiveRadixTree {
+    private static final int KEY_BYTES = 4;
+
+    private Node root;
+    private int size;
+    private boolean changed; // Set by the recursive insert/delete when the key set changed
+
+    /**
+     * Base class of leaves and inner nodes.
+     */
+    private abstract static class Node {
+    }
+
+    /**
+     * Leaf storing a complete key, so no bytes need to be kept on the path.
+     */
+    private static class Leaf extends Node {
+        final int key; // Key with the sign bit flipped (unsigned byte order = signed int order)
+
+        Leaf(int key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * Inner node with a compressed prefix. The prefix bytes are not stored separately:
+     * every key below the node shares them, so they are read from a representative key.
+     */
+    private abstract static class Inner extends Node {
+        int prefixLen;  // Number of bytes skipped before branching
+        int prefixKey;  // Any key of the subtree, used to read the prefix bytes
+        int count;      // Number of children
+
+        abstract Node findChild(int b);
+        abstract void addChild(int b, Node child);
+        abstract void replaceChild(int b, Node child);
+        abstract void removeChild(int b);
+        abstract boolean isFull();
+        abstract Inner grow();
+        abstract Inner shrink(); // Returns a smaller node type if underfull, else this
+        abstract void forEachChild(Consumer<Node> action);
+
+        void copyHeader(Inner from) {
+            prefixLen = from.prefixLen;
+            prefixKey = from.prefixKey;
+        }
+    }
+
+    /**
+     * Inner node with up to 4 children, kept in sorted key order.
+     */
+    private static class Node4 extends Inner {
+        final byte[] keys = new byte[4];
+        final Node[] children = new Node[4];
+
+        Node findChild(int b) {
+            for (int i = 0; i < count; i++) {
+                if ((keys[i] & 0xFF) == b) return children[i];
+            }
+            return null;
+        }
+
+        void addChild(int b, Node child) {
+            int pos = count;
+            while (pos > 0 && (keys[pos - 1] & 0xFF) > b) {
+                keys[pos] = keys[pos - 1];
+                children[pos] = children[pos - 1];
+                pos--;
+            }
+            keys[pos] = (byte) b;
+            children[pos] = child;
+            count++;
+        }
+
+        void replaceChild(int b, Node child) {
+            for (int i = 0; i < count; i++) {
+                if ((keys[i] & 0xFF) == b) children[i] = child;
+            }
+        }
+
+        void removeChild(int b) {
+            int pos = 0;
+            while ((keys[pos] & 0xFF) != b) pos++;
+            System.arraycopy(keys, pos + 1, keys, pos, count - pos - 1);
+            System.arraycopy(children, pos + 1, children, pos, count - pos - 1);
+            children[--count] = null;
+        }
+
+        boolean isFull() {
+            return count == 4;
+        }
+
+        Inner grow() {
+            Node16 node = new Node16();
+            node.copyHeader(this);
+            System.arraycopy(keys, 0, node.keys, 0, count);
+            System.arraycopy(children, 0, node.children, 0, count);
+            node.count = count;
+            return node;
+        }
+
+        Inner shrink() {
+            return this;
+        }
+
+        void forEachChild(Consumer<Node> action) {
+            for (int i = 0; i < count; i++) action.accept(children[i]);
+        }
+    }
+
+    /**
+     * Inner node with up to 16 children, kept in sorted key order.
+     */
+    private static class Node16 extends Inner {
+        final byte[] keys = new byte[16];
+        final Node[] children = new Node[16];
+
+        Node findChild(int b) {
+            for (int i = 0; i < count; i++) {
+                if ((keys[i] & 0xFF) == b) return children[i];
+            }
+            return null;
+        }
+
+        void addChild(int b, Node child) {
+            int pos = count;
+            while (pos > 0 && (keys[pos - 1] & 0xFF) > b) {
+                keys[pos] = keys[pos - 1];
+                children[pos] = children[pos - 1];
+                pos--;
+            }
+            keys[pos] = (byte) b;
+            children[pos] = child;
+            count++;
+        }
+
+        void replaceChild(int b, Node child) {
+            for (int i = 0; i < count; i++) {
+                if ((keys[i] & 0xFF) == b) children[i] = child;
+            }
+        }
+
+        void removeChild(int b) {
+            int pos = 0;
+            while ((keys[pos] & 0xFF) != b) pos++;
+            System.arraycopy(keys, pos + 1, keys, pos, count - pos - 1);
+            System.arraycopy(children, pos + 1, children, pos, count - pos - 1);
+            children[--count] = null;
+        }
+
+        boolean isFull() {
+            return count == 16;
+        }
+
+        Inner grow() {
+            Node48 node = new Node48();
+            node.copyHeader(this);
+            for (int i = 0; i < count; i++) {
+                node.index[keys[i] & 0xFF] = (byte) (i + 1);
+                node.children[i] = children[i];
+            }
+            node.count = count;
+            return node;
+        }
+
+        Inner shrink() {
+            if (count > 3) return this;
+            Node4 node = new Node4();
+            node.copyHeader(this);
+            System.arraycopy(keys, 0, node.keys, 0, count);
+            System.arraycopy(children, 0, node.children, 0, count);
+            node.count = count;
+            return node;
+        }
+
+        void forEachChild(Consumer<Node> action) {
+            for (int i = 0; i < count; i++) action.accept(children[i]);
+        }
+    }
+
+    /**
+     * Inner node with up to 48 children, addressed through a 256-entry byte index.
+     */
+    private static class Node48 extends Inner {
+        final byte[] index = new byte[256]; // Child slot + 1 for each key byte, 0 if absent
+        final Node[] children = new Node[48];
+
+        Node findChild(int b) {
+            int slot = index[b];
+            return slot == 0 ? null : children[slot - 1];
+        }
+
+        void addChild(int b, Node child) {
+            int slot = 0;
+            while (children[slot] != null) slot++;
+            children[slot] = child;
+            index[b] = (byte) (slot + 1);
+            count++;
+        }
+
+        void replaceChild(int b, Node child) {
+            children[index[b] - 1] = child;
+        }
+
+        void removeChild(int b) {
+            children[index[b] - 1] = null;
+            index[b] = 0;
+            count--;
+        }
+
+        boolean isFull() {
+            return count == 48;
+        }
+
+        Inner grow() {
+            Node256 node = new Node256();
+            node.copyHeader(this);
+            for (int b = 0; b < 256; b++) {
+                if (index[b] != 0) node.children[b] = children[index[b] - 1];
+            }
+            node.count = count;
+            return node;
+        }
+
+        Inner shrink() {
+            if (count > 12) return this;
+            Node16 node = new Node16();
+            node.copyHeader(this);
+            for (int b = 0; b < 256; b++) {
+                if (index[b] != 0) {
+                    node.keys[node.count] = (byte) b;
+                    node.children[node.count++] = children[index[b] - 1];
+                }
+            }
+            return node;
+        }
+
+        void forEachChild(Consumer<Node> action) {
+            for (int b = 0; b < 256; b++) {
+                if (index[b] != 0) action.accept(children[index[b] - 1]);
+            }
+        }
+    }
+
+    /**
+     * Inner node with one slot for every possible key byte.
+     */
+    private static class Node256 extends Inner {
+        final Node[] children = new Node[256];
+
+        Node findChild(int b) {
+            return children[b];
+        }
+
+        void addChild(int b, Node child) {
+            children[b] = child;
+            count++;
+        }
+
+        void replaceChild(int b, Node child) {
+            children[b] = child;
+        }
+
+        void removeChild(int b) {
+            children[b] = null;
+            count--;
+        }
+
+        boolean isFull() {
+            return false;
+        }
+
+        Inner grow() {
+            return this;
+        }
+
+        Inner shrink() {
+            if (count > 37) return this;
+            Node48 node = new Node48();
+            node.copyHeader(this);
+            for (int b = 0; b < 256; b++) {
+                if (children[b] != null) {
+                    node.children[node.count] = children[b];
+                    node.index[b] = (byte) (++node.count);
+                }
+            }
+            return node;
+        }
+
+        void forEachChild(Consumer<Node> action) {
+            for (int b = 0; b < 256; b++) {
+                if (children[b] != null) action.accept(children[b]);
+            }
+        }
+    }
+
+    /**
+     * Inserts a key into the tree. Inserting an existing key has no effect.
+     * @param key The key to insert.
+     */
+    public void insert(int key) {
+        changed = false;
+        root = insert(root, encode(key), 0);
+        if (changed) size++;
+    }
+
+    /**
+     * Searches for a key in the tree.
+     * @param key The key to search for.
+     * @return True if the key is found, false otherwise.
+     */
+    public boolean search(int key) {
+        int k = encode(key);
+        Node node = root;
+        int depth = 0;
+        while (node != null) {
+            if (node instanceof Leaf) return ((Leaf) node).key == k;
+            Inner inner = (Inner) node;
+            if (inner.prefixLen > 0) {
+                if (prefixMismatch(inner, k, depth) < inner.prefixLen) return false;
+                depth += inner.prefixLen;
+            }
+            node = inner.findChild(byteAt(k, depth));
+            depth++;
+        }
+        return false;
+    }
+
+    /**
+     * Deletes a key from the tree. Deleting a missing key has no effect.
+     * @param key The key to delete.
+     */
+    public void delete(int key) {
+        changed = false;
+        root = delete(root, encode(key), 0);
+        if (changed) size--;
+    }
+
+    /**
+     * Visits all keys in ascending order.
+     * @param action Callback invoked once per key.
+     */
+    public void forEachKey(IntConsumer action) {
+        forEachKey(root, action);
+    }
+
+    /**
+     * Performs an in-order traversal of the tree and prints the keys.
+     */
+    public void traverse() {
+        forEachKey(key -> System.out.print(key + " "));
+        System.out.println();
+    }
+
+    /**
+     * Gets the number of keys in the tree.
+     * @return Number of stored keys.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of nodes in the tree, counting leaves and inner nodes.
+     * @return The total number of nodes.
+     */
+    public int getNodeCount() {
+        return countNodes(root);
+    }
+
+    /**
+     * Recursively inserts a key below a node.
+     * @param node Current node in recursion (may be null).
+     * @param k Encoded key.
+     * @param depth Index of the key byte consumed at this node.
+     * @return The node that replaces this node in its parent.
+     */
+    private Node insert(Node node, int k, int depth) {
+        if (node == null) {
+            changed = true;
+            return new Leaf(k);
+        }
+
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            if (leaf.key == k) return leaf; // Duplicate keys are not allowed
+            // Lazy expansion: branch where the two keys first differ
+            int common = 0;
+            while (byteAt(leaf.key, depth + common) == byteAt(k, depth + common)) common++;
+            Node4 branch = new Node4();
+            branch.prefixLen = common;
+            branch.prefixKey = k;
+            branch.addChild(byteAt(leaf.key, depth + common), leaf);
+            branch.addChild(byteAt(k, depth + common), new Leaf(k));
+            changed = true;
+            return branch;
+        }
+
+        Inner inner = (Inner) node;
+        if (inner.prefixLen > 0) {
+            int mismatch = prefixMismatch(inner, k, depth);
+            if (mismatch < inner.prefixLen) {
+                // Split the compressed prefix at the first differing byte
+                Node4 branch = new Node4();
+                branch.prefixLen = mismatch;
+                branch.prefixKey = k;
+                branch.addChild(byteAt(inner.prefixKey, depth + mismatch), inner);
+                branch.addChild(byteAt(k, depth + mismatch), new Leaf(k));
+                inner.prefixLen -= mismatch + 1;
+                changed = true;
+                return branch;
+            }
+            depth += inner.prefixLen;
+        }
+
+        int b = byteAt(k, depth);
+        Node child = inner.findChild(b);
+        if (child != null) {
+            Node newChild = insert(child, k, depth + 1);
+            if (newChild != child) inner.replaceChild(b, newChild);
+            return inner;
+        }
+        if (inner.isFull()) inner = inner.grow();
+        inner.addChild(b, new Leaf(k));
+        changed = true;
+        return inner;
+    }
+
+    /**
+     * Recursively deletes a key below a node, shrinking and collapsing nodes on the way back.
+     * @param node Current node in recursion (may be null).
+     * @param k Encoded key.
+     * @param depth Index of the key byte consumed at this node.
+     * @return The node that replaces this node in its parent, or null if it became empty.
+     */
+    private Node delete(Node node, int k, int depth) {
+        if (node == null) return null;
+        if (node instanceof Leaf) {
+            if (((Leaf) node).key != k) return node;
+            changed = true;
+            return null;
+        }
+
+        Inner inner = (Inner) node;
+        if (inner.prefixLen > 0) {
+            if (prefixMismatch(inner, k, depth) < inner.prefixLen) return inner;
+            depth += inner.prefixLen;
+        }
+        int b = byteAt(k, depth);
+        Node child = inner.findChild(b);
+        if (child == null) return inner;
+        Node newChild = delete(child, k, depth + 1);
+        if (newChild == child) return inner;
+        if (newChild != null) {
+            inner.replaceChild(b, newChild);
+            return inner;
+        }
+
+        inner.removeChild(b);
+        if (inner.count == 1) {
+            // Collapse a single-child node into its child
+            Node[] only = new Node[1];
+            inner.forEachChild(c -> only[0] = c);
+            if (only[0] instanceof Inner) {
+                Inner remaining = (Inner) only[0];
+                remaining.prefixLen += inner.prefixLen + 1;
+            }
+            return only[0];
+        }
+        return inner.shrink();
+    }
+
+    private void forEachKey(Node node, IntConsumer action) {
+        if (node == null) return;
+        if (node instanceof Leaf) {
+            action.accept(decode(((Leaf) node).key));
+            return;
+        }
+        ((Inner) node).forEachChild(child -> forEachKey(child, action));
+    }
+
+    private int countNodes(Node node) {
+        if (node == null) return 0;
+        if (node instanceof Leaf) return 1;
+        int[] count = {1};
+        ((Inner) node).forEachChild(child -> count[0] += countNodes(child));
+        return count[0];
+    }
+
+    /**
+     * Compares a node's compressed prefix with the key.
+     * @return Number of leading prefix bytes that match.
+     */
+    private static int prefixMismatch(Inner node, int k, int depth) {
+        int i = 0;
+        while (i < node.prefixLen && byteAt(node.prefixKey, depth + i) == byteAt(k, depth + i)) i++;
+        return i;
+    }
+
+    /**
+     * Gets a byte of an encoded key, most significant first.
+     */
+    private static int byteAt(int k, int depth) {
+        return (k >>> ((KEY_BYTES - 1 - depth) * 8)) & 0xFF;
+    }
+
+    /**
+     * Flips the sign bit so that unsigned byte-wise order matches signed int order.
+     */
+    private static int encode(int key) {
+        return key ^ Integer.MIN_VALUE;
+    }
+
+    private static int decode(int k) {
+        return k ^ Integer.MIN_VALUE;
+    }
+}
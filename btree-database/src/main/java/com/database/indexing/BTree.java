@@ -4,31 +4,197 @@ package com.database.indexing;
  * Represents a B-Tree data structure used for indexing.
  */
 public class BTree {
+    public static final int DEFAULT_POOL_CAPACITY = 64;
+
     BTreeNode root;
     int degree;
+    private final NodePool pool; // Recycles nodes freed by merges and root collapses
+    private BloomFilter filter; // Optional membership filter for fast negative lookups
+    private int filterExpectedKeys;
+    private double filterFalsePositiveRate;
+    private LookupCache cache; // Optional read-through cache for point lookups
+    private DeleteListener deleteListener; // Null unless someone listens for missing keys
+    private long deleteMisses; // Deletes of keys that were not in the tree
+
+    /**
+     * Callback for visiting the key/value entries of the tree.
+     */
+    public interface EntryVisitor {
+        void visit(int key, int value);
+    }
+
+    /**
+     * Receives delete events. Callbacks are synchronous: delete() calls the listener
+     * on the deleting thread and returns only after it does, so the listener's cost is
+     * added to every missed delete, and a listener that blocks stalls all deletes
+     * (and, in a locked wrapper, everyone waiting for the lock). Implementations must be
+     * cheap and non-blocking, e.g. bump a counter or offer() the key to a queue drained
+     * by another thread.
+     */
+    public interface DeleteListener {
+        void onMissingKey(int key);
+    }
 
     /**
      * Constructor to initialize the B-Tree with a given degree.
      * @param degree Minimum degree of the B-Tree (defines branching factor).
      */
     public BTree(int degree) {
-        this.root = new BTreeNode(degree, true);
+        this(degree, DEFAULT_POOL_CAPACITY);
+    }
+
+    /**
+     * Constructor to initialize the B-Tree with a given degree and node pool size.
+     * A pool large enough to absorb the split/merge imbalance of the workload lets
+     * steady-state inserts and deletes run without allocating.
+     * @param degree Minimum degree of the B-Tree (defines branching factor).
+     * @param poolCapacity Maximum number of freed nodes kept for reuse; 0 disables pooling.
+     */
+    public BTree(int degree, int poolCapacity) {
         this.degree = degree;
+        this.pool = new NodePool(degree, poolCapacity);
+        this.root = pool.acquire(true);
     }
 
     /**
-     * Inserts a key into the B-Tree.
-     * If the root is full, it is split, and a new root is created.
+     * Inserts a key into the B-Tree with a value of 0.
      * @param key The key to insert.
      */
     public void insert(int key) {
+        insert(key, 0);
+    }
+
+    /**
+     * Inserts a key and its value into the B-Tree.
+     * If the root is full, it is split, and a new root is created.
+     * @param key The key to insert.
+     * @param value The value stored with the key.
+     */
+    public void insert(int key, int value) {
+        if (root == null) root = pool.acquire(true); // Tree was emptied by delete()
         if (root.numKeys == 2 * degree - 1) { // If root is full, split it
-            BTreeNode newRoot = new BTreeNode(degree, false);
+            BTreeNode newRoot = pool.acquire(false);
             newRoot.children[0] = root;
             newRoot.splitChild(0, root);
             root = newRoot;
         }
-        root.insertNonFull(key); // Insert into the appropriate node
+        root.insertNonFull(key, value); // Insert into the appropriate node
+        if (cache != null) cache.invalidate(key);
+        if (filter != null) {
+            filter.add(key);
+            if (filter.needsRebuild()) rebuildFilter();
+        }
+    }
+
+    /**
+     * Inserts every key of an array with a value of 0.
+     * @param keys The keys to insert.
+     */
+    public void insertAll(int[] keys) {
+        for (int key : keys) insert(key, 0);
+    }
+
+    /**
+     * Counts how many keys of an array are present, without boxing or allocating.
+     * @param keys The keys to search for.
+     * @return Number of keys found.
+     */
+    public int searchAll(int[] keys) {
+        int found = 0;
+        for (int key : keys) {
+            if (search(key)) found++;
+        }
+        return found;
+    }
+
+    /**
+     * Copies all keys in ascending order into a new array.
+     * @return Sorted keys, including duplicates.
+     */
+    public int[] toArray() {
+        int[] keys = new int[countRange(Integer.MIN_VALUE, Integer.MAX_VALUE)];
+        int[] filled = new int[1];
+        if (root != null) root.forEachKey(key -> keys[filled[0]++] = key);
+        return keys;
+    }
+
+    /**
+     * Builds a B-Tree bottom-up from entries sorted by key, much faster than inserting
+     * them one by one. Every level is packed evenly: nodes get about fill * (2 * degree - 1)
+     * keys, never fewer than degree - 1 below the root.
+     * @param degree Minimum degree of the new tree.
+     * @param keys Keys in ascending order (duplicates allowed).
+     * @param values Values parallel to keys.
+     * @param size Number of entries to load from the arrays.
+     * @param fill Fraction of each node's key slots to fill, between 0.5 and 1.
+     * @return The new tree.
+     */
+    public static BTree bulkLoad(int degree, int[] keys, int[] values, int size, double fill) {
+        if (fill < 0.5 || fill > 1.0) throw new IllegalArgumentException("Fill must be in [0.5, 1]");
+        BTree tree = new BTree(degree);
+        if (size == 0) return tree;
+        int maxKeys = 2 * degree - 1;
+        int targetKeys = Math.max(degree - 1, Math.min(maxKeys, (int) Math.round(fill * maxKeys)));
+
+        // Leaves: a leaf with k keys uses k + 1 of the size + 1 slots, the extra one being
+        // the separator that follows it (the last leaf has none)
+        int count = groupCount(size + 1, targetKeys + 1, degree);
+        BTreeNode[] level = new BTreeNode[count];
+        int[] sepKeys = new int[count - 1];
+        int[] sepValues = new int[count - 1];
+        int entry = 0;
+        for (int j = 0; j < count; j++) {
+            int slots = (size + 1) / count + (j < (size + 1) % count ? 1 : 0);
+            BTreeNode leaf = tree.pool.acquire(true);
+            System.arraycopy(keys, entry, leaf.keys, 0, slots - 1);
+            System.arraycopy(values, entry, leaf.values, 0, slots - 1);
+            leaf.numKeys = slots - 1;
+            entry += slots - 1;
+            if (j < count - 1) {
+                sepKeys[j] = keys[entry];
+                sepValues[j] = values[entry];
+                entry++;
+            }
+            level[j] = leaf;
+        }
+
+        // Internal levels: group the nodes below under parents, taking the separators
+        // between siblings into the parent and passing the others up
+        while (level.length > 1) {
+            int parents = groupCount(level.length, targetKeys + 1, degree);
+            BTreeNode[] upper = new BTreeNode[parents];
+            int[] upperKeys = new int[parents - 1];
+            int[] upperValues = new int[parents - 1];
+            int child = 0;
+            for (int j = 0; j < parents; j++) {
+                int children = level.length / parents + (j < level.length % parents ? 1 : 0);
+                BTreeNode node = tree.pool.acquire(false);
+                System.arraycopy(level, child, node.children, 0, children);
+                System.arraycopy(sepKeys, child, node.keys, 0, children - 1);
+                System.arraycopy(sepValues, child, node.values, 0, children - 1);
+                node.numKeys = children - 1;
+                child += children;
+                if (j < parents - 1) {
+                    upperKeys[j] = sepKeys[child - 1];
+                    upperValues[j] = sepValues[child - 1];
+                }
+                upper[j] = node;
+            }
+            level = upper;
+            sepKeys = upperKeys;
+            sepValues = upperValues;
+        }
+        tree.pool.release(tree.root); // Empty leaf made by the constructor
+        tree.root = level[0];
+        return tree;
+    }
+
+    /**
+     * Number of groups to split items into so that groups hold about target items,
+     * and at least min (up to 2 * min) items each when there is more than one group.
+     */
+    private static int groupCount(int items, int target, int min) {
+        return Math.max(1, Math.min((items + target - 1) / target, items / min));
     }
 
     /**
@@ -45,30 +211,250 @@ public class BTree {
      * @return True if the key is found, false otherwise.
      */
     public boolean search(int key) {
+        if (cache != null) {
+            int cached = cache.get(key);
+            if (cached != LookupCache.NOT_CACHED) return cached == LookupCache.PRESENT;
+            boolean found = searchTree(key);
+            cache.put(key, found);
+            return found;
+        }
+        return searchTree(key);
+    }
+
+    /**
+     * Gets the value stored with a key.
+     * @param key The key to look up.
+     * @param defaultValue Value returned if the key is not in the tree.
+     * @return The value of the key, or defaultValue if not found.
+     */
+    public int get(int key, int defaultValue) {
+        BTreeNode node = root == null ? null : root.search(key);
+        if (node == null) return defaultValue;
+        int i = 0;
+        while (node.keys[i] != key) i++;
+        return node.values[i];
+    }
+
+    /**
+     * Replaces the value stored with a key.
+     * @param key The key to update.
+     * @param value The new value.
+     * @return True if the key was found and updated, false otherwise.
+     */
+    public boolean update(int key, int value) {
+        BTreeNode node = root == null ? null : root.search(key);
+        if (node == null) return false;
+        int i = 0;
+        while (node.keys[i] != key) i++;
+        node.values[i] = value;
+        return true;
+    }
+
+    /**
+     * Looks up a key and its value in a single descent, so a stored value that
+     * coincides with a default does not need a second search to tell it apart.
+     * @param key The key to look up.
+     * @return The value widened to an unsigned long, or -1 if the key is not in the tree.
+     */
+    public long lookup(int key) {
+        BTreeNode node = root == null ? null : root.search(key);
+        if (node == null) return -1;
+        int i = 0;
+        while (node.keys[i] != key) i++;
+        return node.values[i] & 0xffffffffL;
+    }
+
+    /**
+     * Stores a value under a key in a single descent: replaces the value if the key is
+     * present, and inserts the key otherwise.
+     * @param key The key to store.
+     * @param value The value stored with the key.
+     * @return True if an existing value was replaced, false if the key was inserted.
+     */
+    public boolean put(int key, int value) {
+        if (root == null) root = pool.acquire(true); // Tree was emptied by delete()
+        if (root.numKeys == 2 * degree - 1) { // If root is full, split it
+            BTreeNode newRoot = pool.acquire(false);
+            newRoot.children[0] = root;
+            newRoot.splitChild(0, root);
+            root = newRoot;
+        }
+        if (root.putNonFull(key, value)) return true; // The key set is unchanged
+        if (cache != null) cache.invalidate(key);
+        if (filter != null) {
+            filter.add(key);
+            if (filter.needsRebuild()) rebuildFilter();
+        }
+        return false;
+    }
+
+    /**
+     * Visits all entries with keys in [low, high] in ascending key order.
+     * @param low Lower bound (inclusive).
+     * @param high Upper bound (inclusive).
+     * @param visitor Callback invoked once per entry.
+     */
+    public void forEachInRange(int low, int high, EntryVisitor visitor) {
+        if (root != null && low <= high) root.forEachInRange(low, high, visitor);
+    }
+
+    /**
+     * Counts the keys in [low, high].
+     * @param low Lower bound (inclusive).
+     * @param high Upper bound (inclusive).
+     * @return Number of keys in the range.
+     */
+    public int countRange(int low, int high) {
+        int[] count = {0};
+        forEachInRange(low, high, (key, value) -> count[0]++);
+        return count[0];
+    }
+
+    /**
+     * Searches for a key below the cache, consulting the membership filter if enabled.
+     * @param key The key to search for.
+     * @return True if the key is found, false otherwise.
+     */
+    private boolean searchTree(int key) {
+        if (filter != null) {
+            if (!filter.mightContain(key)) return false; // Definite miss, skip the descent
+            boolean found = root != null && root.search(key) != null;
+            if (!found) filter.recordFalsePositive();
+            return found;
+        }
         return root == null ? false : root.search(key) != null;
     }
 
+    /**
+     * Enables a read-through cache of search() results for hot keys.
+     * Cached entries are invalidated by insert() and delete(), so results stay exact.
+     * @param capacity Maximum number of keys kept in the cache.
+     */
+    public void enableCache(int capacity) {
+        cache = new LookupCache(capacity);
+    }
+
+    /**
+     * Removes the lookup cache.
+     */
+    public void disableCache() {
+        cache = null;
+    }
+
+    /**
+     * Gets the lookup cache, e.g. to read its hit rate.
+     * @return The active cache, or null if caching is disabled.
+     */
+    public LookupCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Enables a Bloom filter in front of search() so that lookups of absent keys
+     * usually return without descending the tree. The filter is built from the current keys.
+     * @param expectedKeys Number of keys the filter is sized for.
+     * @param falsePositiveRate Target false-positive probability.
+     */
+    public void enableFilter(int expectedKeys, double falsePositiveRate) {
+        this.filterExpectedKeys = expectedKeys;
+        this.filterFalsePositiveRate = falsePositiveRate;
+        buildFilter();
+    }
+
+    /**
+     * Removes the membership filter; search() goes back to always descending the tree.
+     */
+    public void disableFilter() {
+        filter = null;
+    }
+
+    /**
+     * Gets the membership filter, e.g. to read its false-positive rate and memory.
+     * @return The active filter, or null if filtering is disabled.
+     */
+    public BloomFilter getFilter() {
+        return filter;
+    }
+
+    /**
+     * Rebuilds the membership filter from the keys currently in the tree.
+     * This drops stale bits left by deletions and resizes the filter if the tree has grown.
+     * Called automatically when the filter drifts too far from the tree.
+     * Does nothing if no filter is enabled.
+     */
+    public void rebuildFilter() {
+        if (filter != null) buildFilter();
+    }
+
+    /**
+     * Builds a filter over the current keys with the configured size and error rate.
+     */
+    private void buildFilter() {
+        int keyCount = root == null ? 0 : root.countNodes(); // countNodes() counts keys
+        BloomFilter rebuilt = new BloomFilter(Math.max(filterExpectedKeys, keyCount), filterFalsePositiveRate);
+        if (root != null) root.forEachKey(rebuilt::add);
+        filter = rebuilt;
+    }
+
     /**
      * Deletes a key from the B-Tree and adjusts the structure if necessary.
      * If the root becomes empty, it is replaced by its first child.
+     * A missing key is counted and reported to the delete listener, if any, before this returns.
      * @param key The key to delete.
+     * @return True if the key was found and deleted, false otherwise.
      */
-    public void delete(int key) {
-        if (root == null) {
-            System.out.println("The tree is empty");
-            return;
+    public boolean delete(int key) {
+        // An empty tree, or a filter that rules the key out, needs no descent
+        if (root == null || (filter != null && !filter.mightContain(key))) {
+            recordMiss(key);
+            return false;
         }
 
-        root.delete(key);
+        boolean found = root.delete(key);
+        if (found) {
+            if (cache != null) cache.invalidate(key);
+            if (filter != null) {
+                filter.recordDeletion();
+                if (filter.needsRebuild()) rebuildFilter();
+            }
+        } else {
+            if (filter != null) filter.recordFalsePositive(); // The filter said "maybe" above
+            recordMiss(key);
+        }
 
-        // If root becomes empty, change root to its first child
+        // If root becomes empty, change root to its first child (merges can also happen on a miss)
         if (root.numKeys == 0) {
+            BTreeNode oldRoot = root;
             if (root.isLeaf) {
                 root = null; // The tree becomes empty
             } else {
                 root = root.children[0]; // Promote the first child as new root
             }
+            pool.release(oldRoot);
         }
+        return found;
+    }
+
+    /**
+     * Sets the listener notified of deletes of missing keys. It is called synchronously
+     * from delete(); see DeleteListener for what that requires of it.
+     * @param listener The listener, or null to stop notifications.
+     */
+    public void setDeleteListener(DeleteListener listener) {
+        this.deleteListener = listener;
+    }
+
+    /**
+     * Gets the number of deletes that did not find their key.
+     * @return Missed delete count.
+     */
+    public long getDeleteMissCount() {
+        return deleteMisses;
+    }
+
+    private void recordMiss(int key) {
+        deleteMisses++;
+        if (deleteListener != null) deleteListener.onMissingKey(key);
     }
 
     /**
@@ -110,6 +496,38 @@ public class BTree {
         return count;
     }
 
+    public int getDegree() {
+        return degree;
+    }
+
+    /**
+     * Fills the node pool ahead of time so that later growth of the tree
+     * takes nodes from the pool instead of allocating them.
+     * @param count Number of idle nodes to hold, bounded by the pool capacity.
+     */
+    public void reserveNodes(int count) {
+        pool.reserve(count);
+    }
+
+    /**
+     * Gets the average fraction of key slots in use per node.
+     * Freshly split trees sit around 0.5-0.7; long delete churn drives it towards 0.5.
+     * @return Fill factor between 0 and 1, or 1 for an empty tree.
+     */
+    public double getFillFactor() {
+        int nodes = getNodeCount();
+        if (nodes == 0) return 1.0;
+        return (double) countRange(Integer.MIN_VALUE, Integer.MAX_VALUE) / ((long) nodes * (2 * degree - 1));
+    }
+
+    /**
+     * Gets the number of freed nodes currently held for reuse.
+     * @return Idle pooled node count.
+     */
+    public int getPooledNodeCount() {
+        return pool.size();
+    }
+
     /**
      * Alias for getNodeCount() - counts total nodes in the B-Tree.
      * @return Total number of nodes in the tree.
@@ -0,0 +1,230 @@
+package com.database.indexing;
+
+import java.util.Arrays;
+
+/**
+ * Online compaction of a B-Tree to a target fill factor.
+ * Random deletes leave many nodes near the minimum of degree - 1 keys, so the tree
+ * holds more nodes (and possibly more levels) than its keys need. A compaction pass
+ * walks the tree level by level from the root down and repacks the children of each
+ * node: their keys, together with the separators between them, are spread evenly over
+ * as few children as the target fill allows, and the freed children are released.
+ * Going top-down means a node has already been packed, and so holds many children,
+ * by the time its own children are packed; the leaves, which are most of the nodes,
+ * end up at the target fill. When the root's children fit into one node the root
+ * collapses and the height drops.
+ *
+ * Work is done in bounded steps of whole nodes. Between steps the pass remembers only
+ * a level and a key, and every step descends from the root again, so the tree may be
+ * modified freely between steps (from the same thread). The B-Tree invariants hold
+ * after every step.
+ */
+public class BTreeCompactor {
+    private final BTree tree;
+    private final double targetFill;
+    private final int targetKeys; // Keys per node the pass packs children to
+    private final int[] keyBuffer;            // Keys of the children being repacked, in order
+    private final int[] valueBuffer;
+    private final BTreeNode[] childBuffer;    // Grandchildren of the node being repacked
+    private int depth;            // Level being processed, counted in edges below the root
+    private int resumeKey;        // Continue with the node covering this key
+    private boolean done;
+    private long freedNodes;
+    private long repacks;
+
+    /**
+     * Constructor to create a compactor and start a pass.
+     * @param tree The tree to compact.
+     * @param targetFill Fraction of each node's key slots to fill, between 0.5 and 1.
+     */
+    public BTreeCompactor(BTree tree, double targetFill) {
+        if (targetFill < 0.5 || targetFill > 1.0) throw new IllegalArgumentException("Target fill must be in [0.5, 1]");
+        this.tree = tree;
+        this.targetFill = targetFill;
+        int maxKeys = 2 * tree.degree - 1;
+        this.targetKeys = Math.max(tree.degree - 1, Math.min(maxKeys, (int) Math.round(targetFill * maxKeys)));
+        int maxEntries = (maxKeys + 1) * (maxKeys + 1); // 2t full children plus 2t - 1 separators, rounded up
+        this.keyBuffer = new int[maxEntries];
+        this.valueBuffer = new int[maxEntries];
+        this.childBuffer = new BTreeNode[maxEntries + 1];
+        restart();
+    }
+
+    /**
+     * Starts a new pass from the root.
+     */
+    public void restart() {
+        depth = 0;
+        resumeKey = Integer.MIN_VALUE;
+        done = false;
+    }
+
+    /**
+     * Runs a bounded amount of compaction.
+     * @param maxWork Maximum number of nodes whose children are repacked.
+     * @return True if the pass has more work left.
+     */
+    public boolean step(int maxWork) {
+        int work = 0;
+        while (work < maxWork && !done) {
+            BTreeNode root = tree.root;
+            if (root == null || depth >= tree.getHeight()) {
+                done = true; // Only leaves are left below this level
+                break;
+            }
+
+            // Descend to the node covering resumeKey at this level, remembering the
+            // separator that bounds its subtree on the right
+            BTreeNode node = root;
+            int upper = 0;
+            boolean hasUpper = false;
+            for (int d = 0; d < depth; d++) {
+                int i = childIndex(node, resumeKey);
+                if (i < node.numKeys) {
+                    upper = node.keys[i];
+                    hasUpper = true;
+                }
+                node = node.children[i];
+            }
+
+            work++;
+            repack(node, node == root);
+            if (node.numKeys == 0) {
+                collapseRoot(node); // Process the new root from the start
+            } else if (hasUpper && upper != Integer.MAX_VALUE) {
+                resumeKey = upper + 1; // Next node on this level
+            } else {
+                depth++;
+                resumeKey = Integer.MIN_VALUE;
+            }
+        }
+        return !done;
+    }
+
+    /**
+     * Runs the pass to completion.
+     */
+    public void compact() {
+        while (step(Integer.MAX_VALUE)) {
+            // Each call finishes at least one node
+        }
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * Gets the fraction of nodes a full pass would roughly remove, based on how far the
+     * tree's fill factor is below the target. Zero means nothing to gain; values above
+     * about 0.2 are a reasonable trigger for compaction.
+     * @return Fragmentation between 0 and 1.
+     */
+    public double getFragmentation() {
+        return Math.max(0.0, 1.0 - tree.getFillFactor() / targetFill);
+    }
+
+    /**
+     * Gets the number of nodes removed from the tree by this compactor.
+     * @return Freed node count.
+     */
+    public long getFreedNodeCount() {
+        return freedNodes;
+    }
+
+    /**
+     * Gets the number of nodes whose children were repacked.
+     * @return Repack count.
+     */
+    public long getRepackCount() {
+        return repacks;
+    }
+
+    /**
+     * Spreads the keys of a node's children, and the separators between them, evenly
+     * over the smallest number of children that holds them at the target fill.
+     * A non-root node keeps at least degree children so that it keeps its minimum key count.
+     */
+    private void repack(BTreeNode node, boolean isRoot) {
+        int oldChildren = node.numKeys + 1;
+        boolean leaves = node.children[0].isLeaf;
+
+        // Gather all entries of the children in key order
+        int entries = 0;
+        int grandchildren = 0;
+        for (int c = 0; c < oldChildren; c++) {
+            BTreeNode child = node.children[c];
+            System.arraycopy(child.keys, 0, keyBuffer, entries, child.numKeys);
+            System.arraycopy(child.values, 0, valueBuffer, entries, child.numKeys);
+            entries += child.numKeys;
+            if (!leaves) {
+                System.arraycopy(child.children, 0, childBuffer, grandchildren, child.numKeys + 1);
+                grandchildren += child.numKeys + 1;
+            }
+            if (c < node.numKeys) {
+                keyBuffer[entries] = node.keys[c];
+                valueBuffer[entries] = node.values[c];
+                entries++;
+            }
+        }
+
+        // k children hold entries - (k - 1) keys, so k >= (entries + 1) / (targetKeys + 1)
+        int newChildren = (entries + targetKeys + 1) / (targetKeys + 1);
+        if (!isRoot) newChildren = Math.max(newChildren, tree.degree);
+        if (newChildren >= oldChildren) {
+            Arrays.fill(childBuffer, 0, grandchildren, null); // Nothing to free
+            return;
+        }
+        repacks++;
+
+        int perChild = (entries - newChildren + 1) / newChildren;
+        int extra = (entries - newChildren + 1) % newChildren;
+        int entry = 0;
+        int grandchild = 0;
+        for (int c = 0; c < newChildren; c++) {
+            BTreeNode child = node.children[c];
+            int count = perChild + (c < extra ? 1 : 0);
+            System.arraycopy(keyBuffer, entry, child.keys, 0, count);
+            System.arraycopy(valueBuffer, entry, child.values, 0, count);
+            if (!leaves) {
+                System.arraycopy(childBuffer, grandchild, child.children, 0, count + 1);
+                Arrays.fill(child.children, count + 1, child.children.length, null);
+                grandchild += count + 1;
+            }
+            child.numKeys = count;
+            entry += count;
+            if (c < newChildren - 1) {
+                node.keys[c] = keyBuffer[entry];
+                node.values[c] = valueBuffer[entry];
+                entry++;
+            }
+        }
+        Arrays.fill(childBuffer, 0, grandchildren, null); // Do not keep detached subtrees alive
+
+        for (int c = newChildren; c < oldChildren; c++) {
+            BTreeNode freed = node.children[c];
+            node.children[c] = null;
+            if (freed.pool != null) freed.pool.release(freed);
+            freedNodes++;
+        }
+        node.numKeys = newChildren - 1;
+    }
+
+    /**
+     * Replaces an empty root by its only child.
+     */
+    private void collapseRoot(BTreeNode oldRoot) {
+        tree.root = oldRoot.children[0];
+        if (oldRoot.pool != null) oldRoot.pool.release(oldRoot);
+        freedNodes++;
+    }
+
+    /**
+     * Index of the child whose subtree covers the key.
+     */
+    private static int childIndex(BTreeNode node, int key) {
+        int i = 0;
+        while (i < node.numKeys && node.keys[i] < key) i++;
+        return i;
+    }
+}
@@ -0,0 +1,77 @@
+package com.database.indexing;
+
+/**
+ * Forward cursor over the entries of a B-Tree in key order.
+ * Instead of returning one entry per call, next() copies whole runs of leaf
+ * entries into caller-provided arrays, so a scan costs one call per batch.
+ * The tree must not be modified while a cursor is open.
+ */
+class BTreeCursor {
+    private final BTreeNode[] nodes; // Path from the root to the current node
+    private final int[] positions;   // Next key index to emit in each node on the path
+    private int depth;               // Index of the current node in the path, -1 when exhausted
+
+    /**
+     * Constructor to position a cursor on the first key that is >= low.
+     * @param root Root of the tree (may be null).
+     * @param low Smallest key of interest.
+     */
+    BTreeCursor(BTreeNode root, int low) {
+        int height = 0;
+        for (BTreeNode node = root; node != null && !node.isLeaf; node = node.children[0]) height++;
+        this.nodes = new BTreeNode[height + 1];
+        this.positions = new int[height + 1];
+        this.depth = -1;
+
+        BTreeNode node = root;
+        while (node != null) {
+            int i = 0;
+            while (i < node.numKeys && node.keys[i] < low) i++;
+            nodes[++depth] = node;
+            positions[depth] = i;
+            node = node.isLeaf ? null : node.children[i];
+        }
+        // Drop exhausted nodes so the top of the path always has something to emit
+        while (depth >= 0 && nodes[depth].isLeaf && positions[depth] == nodes[depth].numKeys) depth--;
+    }
+
+    /**
+     * Copies the next entries into the given arrays.
+     * @param keys Destination for keys.
+     * @param values Destination for values.
+     * @param max Maximum number of entries to copy.
+     * @return Number of entries copied; 0 once the cursor is exhausted.
+     */
+    int next(int[] keys, int[] values, int max) {
+        int count = 0;
+        while (count < max && depth >= 0) {
+            BTreeNode node = nodes[depth];
+            int pos = positions[depth];
+            if (node.isLeaf) {
+                // Bulk-copy a run of leaf entries
+                int n = Math.min(node.numKeys - pos, max - count);
+                System.arraycopy(node.keys, pos, keys, count, n);
+                System.arraycopy(node.values, pos, values, count, n);
+                count += n;
+                positions[depth] = pos + n;
+                if (positions[depth] == node.numKeys) depth--;
+            } else if (pos < node.numKeys) {
+                // Left subtree is done: emit the separator, then descend into the next subtree
+                keys[count] = node.keys[pos];
+                values[count] = node.values[pos];
+                count++;
+                positions[depth] = pos + 1;
+                BTreeNode child = node.children[pos + 1];
+                while (true) {
+                    nodes[++depth] = child;
+                    positions[depth] = 0;
+                    if (child.isLeaf) break;
+                    child = child.children[0];
+                }
+            } else {
+                depth--;
+            }
+        }
+        return count;
+    }
+}
@@ -2,6 +2,7 @@ package com.database.indexing;
 
 import java.util.Arrays;
 import java.util.Scanner;
+import java.util.function.IntConsumer;
 
 /**
  * Represents a node in a B-Tree.
@@ -10,10 +11,12 @@ import java.util.Scanner;
  */
 class BTreeNode {
     int[] keys;  // Array to store keys in sorted order
+    int[] values;  // Value stored with each key (parallel to keys)
     int degree;  // Minimum degree of the B-Tree (defines range for keys)
     BTreeNode[] children;  // Array to store child nodes
     int numKeys;  // Current number of keys in the node
     boolean isLeaf;  // True if the node is a leaf node (has no children)
+    NodePool pool;  // Pool supplying and recycling nodes of the same tree, or null
 
     /**
      * Constructor to initialize a BTreeNode.
@@ -24,6 +27,7 @@ class BTreeNode {
         this.degree = degree;
         this.isLeaf = isLeaf;
         this.keys = new int[2 * degree - 1]; // Maximum number of keys a node can hold
+        this.values = new int[2 * degree - 1];
         this.children = new BTreeNode[2 * degree]; // Maximum number of children a node can have
         this.numKeys = 0; // Initialize node with zero keys
     }
@@ -74,6 +78,36 @@ class BTreeNode {
         if (!isLeaf) children[numKeys].traverse();
     }
 
+    /**
+     * Visits all keys in the subtree in sorted order without printing them.
+     * @param action Callback invoked once per key.
+     */
+    void forEachKey(IntConsumer action) {
+        for (int i = 0; i < numKeys; i++) {
+            if (!isLeaf) children[i].forEachKey(action);
+            action.accept(keys[i]);
+        }
+        if (!isLeaf) children[numKeys].forEachKey(action);
+    }
+
+    /**
+     * Visits the entries with keys in [low, high] in sorted order.
+     * Subtrees that cannot hold keys in the range are skipped.
+     * @param low Lower bound (inclusive).
+     * @param high Upper bound (inclusive).
+     * @param visitor Callback invoked once per entry.
+     */
+    void forEachInRange(int low, int high, BTree.EntryVisitor visitor) {
+        int i = 0;
+        while (i < numKeys && keys[i] < low) i++; // Children left of keys[i] only hold smaller keys
+        for (; i < numKeys; i++) {
+            if (!isLeaf) children[i].forEachInRange(low, high, visitor);
+            if (keys[i] > high) return;
+            visitor.visit(keys[i], values[i]);
+        }
+        if (!isLeaf) children[numKeys].forEachInRange(low, high, visitor);
+    }
+
     /**
     public void traverseTime() {
         System.out.print("Staring Traverse");
@@ -88,14 +122,16 @@ class BTreeNode {
      **/
 
 
-    public void insertNonFull(int key) {
+    public void insertNonFull(int key, int value) {
         int i = numKeys - 1;
         if (isLeaf) {
             while (i >= 0 && keys[i] > key) {
                 keys[i + 1] = keys[i];
+                values[i + 1] = values[i];
                 i--;
             }
             keys[i + 1] = key;
+            values[i + 1] = value;
             numKeys++;
         } else {
             while (i >= 0 && keys[i] > key) i--;
@@ -103,14 +139,48 @@ class BTreeNode {
                 splitChild(i + 1, children[i + 1]);
                 if (keys[i + 1] < key) i++;
             }
-            children[i + 1].insertNonFull(key);
+            children[i + 1].insertNonFull(key, value);
+        }
+    }
+
+    /**
+     * Replaces the value of a key on the path search() would take, or inserts the key
+     * in a leaf if it is absent. Full children are split on the way down, as in insertNonFull.
+     * @param key The key to store.
+     * @param value The value stored with the key.
+     * @return True if an existing value was replaced, false if the key was inserted.
+     */
+    public boolean putNonFull(int key, int value) {
+        int i = 0;
+        while (i < numKeys && key > keys[i]) i++;
+        if (i < numKeys && keys[i] == key) {
+            values[i] = value;
+            return true;
+        }
+        if (isLeaf) {
+            System.arraycopy(keys, i, keys, i + 1, numKeys - i);
+            System.arraycopy(values, i, values, i + 1, numKeys - i);
+            keys[i] = key;
+            values[i] = value;
+            numKeys++;
+            return false;
+        }
+        if (children[i].numKeys == 2 * degree - 1) {
+            splitChild(i, children[i]);
+            if (keys[i] == key) { // The key was the median of the split child
+                values[i] = value;
+                return true;
+            }
+            if (keys[i] < key) i++;
         }
+        return children[i].putNonFull(key, value);
     }
 
     public void splitChild(int i, BTreeNode y) {
-        BTreeNode z = new BTreeNode(y.degree, y.isLeaf);
+        BTreeNode z = pool != null ? pool.acquire(y.isLeaf) : new BTreeNode(y.degree, y.isLeaf);
         z.numKeys = degree - 1;
         System.arraycopy(y.keys, degree, z.keys, 0, degree - 1);
+        System.arraycopy(y.values, degree, z.values, 0, degree - 1);
         if (!y.isLeaf) {
             System.arraycopy(y.children, degree, z.children, 0, degree);
         }
@@ -120,8 +190,10 @@ class BTreeNode {
         children[i + 1] = z;
         for (int j = numKeys - 1; j >= i; j--) {
             keys[j + 1] = keys[j];
+            values[j + 1] = values[j];
         }
         keys[i] = y.keys[degree - 1];
+        values[i] = y.values[degree - 1];
         numKeys++;
         y.numKeys = degree - 1;
     }
@@ -130,16 +202,21 @@ class BTreeNode {
         BTreeNode child = children[idx];
         BTreeNode sibling = children[idx + 1];
         child.keys[degree - 1] = keys[idx];
+        child.values[degree - 1] = values[idx];
         System.arraycopy(sibling.keys, 0, child.keys, degree, sibling.numKeys);
+        System.arraycopy(sibling.values, 0, child.values, degree, sibling.numKeys);
         if (!child.isLeaf) {
             System.arraycopy(sibling.children, 0, child.children, degree, sibling.numKeys + 1);
         }
         for (int i = idx; i < numKeys - 1; i++) {
             keys[i] = keys[i + 1];
+            values[i] = values[i + 1];
             children[i + 1] = children[i + 2];
         }
+        children[numKeys] = null; // Last child slot moved left
         numKeys--;
         child.numKeys += sibling.numKeys + 1;
+        if (pool != null) pool.release(sibling);
     }
 
     private void borrowFromPrev(int idx) {
@@ -147,6 +224,7 @@ class BTreeNode {
         BTreeNode sibling = children[idx - 1];
         for (int i = child.numKeys - 1; i >= 0; i--) {
             child.keys[i + 1] = child.keys[i];
+            child.values[i + 1] = child.values[i];
         }
         if (!child.isLeaf) {
             for (int i = child.numKeys; i >= 0; i--) {
@@ -154,10 +232,12 @@ class BTreeNode {
             }
         }
         child.keys[0] = keys[idx - 1];
+        child.values[0] = values[idx - 1];
         if (!child.isLeaf) {
             child.children[0] = sibling.children[sibling.numKeys];
         }
         keys[idx - 1] = sibling.keys[sibling.numKeys - 1];
+        values[idx - 1] = sibling.values[sibling.numKeys - 1];
         child.numKeys++;
         sibling.numKeys--;
     }
@@ -166,12 +246,15 @@ class BTreeNode {
         BTreeNode child = children[idx];
         BTreeNode sibling = children[idx + 1];
         child.keys[child.numKeys] = keys[idx];
+        child.values[child.numKeys] = values[idx];
         if (!child.isLeaf) {
             child.children[child.numKeys + 1] = sibling.children[0];
         }
         keys[idx] = sibling.keys[0];
+        values[idx] = sibling.values[0];
         for (int i = 1; i < sibling.numKeys; i++) {
             sibling.keys[i - 1] = sibling.keys[i];
+            sibling.values[i - 1] = sibling.values[i];
         }
         if (!sibling.isLeaf) {
             for (int i = 1; i <= sibling.numKeys; i++) {
@@ -196,7 +279,12 @@ class BTreeNode {
         }
     }
 
-    public void delete(int key) {
+    /**
+     * Deletes one occurrence of a key from the subtree rooted at this node.
+     * @param key The key to delete.
+     * @return True if the key was found.
+     */
+    public boolean delete(int key) {
         int idx = 0;
         while (idx < numKeys && keys[idx] < key) {
             idx++;
@@ -207,19 +295,19 @@ class BTreeNode {
             } else {
                 removeFromNonLeaf(idx);
             }
+            return true;
         } else {
             if (isLeaf) {
-                System.out.println("Key " + key + " not found in the tree.");
-                return;
+                return false;
             }
             boolean lastChild = (idx == numKeys);
             if (children[idx].numKeys < degree) {
                 fill(idx);
             }
             if (lastChild && idx > numKeys) {
-                children[idx - 1].delete(key);
+                return children[idx - 1].delete(key);
             } else {
-                children[idx].delete(key);
+                return children[idx].delete(key);
             }
         }
     }
@@ -227,6 +315,7 @@ class BTreeNode {
     private void removeFromLeaf(int idx) {
         for (int i = idx; i < numKeys - 1; i++) {
             keys[i] = keys[i + 1];
+            values[i] = values[i + 1];
         }
         numKeys--;
     }
@@ -234,12 +323,16 @@ class BTreeNode {
     private void removeFromNonLeaf(int idx) {
         int key = keys[idx];
         if (children[idx].numKeys >= degree) {
-            int pred = getPredecessor(idx);
+            BTreeNode predNode = getPredecessor(idx);
+            int pred = predNode.keys[predNode.numKeys - 1];
             keys[idx] = pred;
+            values[idx] = predNode.values[predNode.numKeys - 1];
             children[idx].delete(pred);
         } else if (children[idx + 1].numKeys >= degree) {
-            int succ = getSuccessor(idx);
+            BTreeNode succNode = getSuccessor(idx);
+            int succ = succNode.keys[0];
             keys[idx] = succ;
+            values[idx] = succNode.values[0];
             children[idx + 1].delete(succ);
         } else {
             merge(idx);
@@ -247,20 +340,20 @@ class BTreeNode {
         }
     }
 
-    private int getPredecessor(int idx) {
+    private BTreeNode getPredecessor(int idx) {
         BTreeNode current = children[idx];
         while (!current.isLeaf) {
             current = current.children[current.numKeys];
         }
-        return current.keys[current.numKeys - 1];
+        return current; // Predecessor is the last entry of this leaf
     }
 
-    private int getSuccessor(int idx) {
+    private BTreeNode getSuccessor(int idx) {
         BTreeNode current = children[idx + 1];
         while (!current.isLeaf) {
             current = current.children[0];
         }
-        return current.keys[0];
+        return current; // Successor is the first entry of this leaf
     }
 
 
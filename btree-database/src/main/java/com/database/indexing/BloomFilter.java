@@ -0,0 +1,176 @@
+package com.database.indexing;
+
+/**
+ * Blocked Bloom filter for int keys.
+ * All bits of a key live in a single 512-bit block (one cache line), so a
+ * membership probe touches exactly one line of memory.
+ * The filter never returns a false negative; deleted keys are not removed
+ * but counted as stale until the filter is rebuilt.
+ */
+public class BloomFilter {
+    private static final int BLOCK_BITS = 512; // One 64-byte cache line per block
+    private static final int WORDS_PER_BLOCK = BLOCK_BITS / 64;
+
+    private final long[] words;
+    private final int numBlocks;
+    private final int numHashes;
+    private final int capacity;
+
+    private int insertedCount;  // Keys added since the last build
+    private int staleCount;     // Keys deleted from the tree but still set in the filter
+    private long probes;        // Number of mightContain() calls
+    private long negatives;     // Probes answered "definitely absent"
+    private long falsePositives; // Probes answered "maybe" for absent keys
+
+    /**
+     * Constructor to size the filter for an expected number of keys.
+     * @param expectedKeys Number of keys the filter should hold at the target rate.
+     * @param falsePositiveRate Target false-positive probability (0 < rate < 1).
+     */
+    public BloomFilter(int expectedKeys, double falsePositiveRate) {
+        if (expectedKeys < 1) expectedKeys = 1;
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False-positive rate must be between 0 and 1");
+        }
+        double ln2 = Math.log(2);
+        // Optimal bits per key, padded by 10% to make up for block imbalance
+        double bitsPerKey = -Math.log(falsePositiveRate) / (ln2 * ln2) * 1.1;
+        long totalBits = (long) Math.ceil(expectedKeys * bitsPerKey);
+        this.numBlocks = (int) Math.max(1, (totalBits + BLOCK_BITS - 1) / BLOCK_BITS);
+        this.words = new long[numBlocks * WORDS_PER_BLOCK];
+        this.numHashes = Math.max(1, Math.min(16, (int) Math.round(bitsPerKey / 1.1 * ln2)));
+        this.capacity = expectedKeys;
+    }
+
+    /**
+     * Adds a key to the filter.
+     * @param key The key to add.
+     */
+    public void add(int key) {
+        long hash = mix(key);
+        int base = blockOf(hash) * WORDS_PER_BLOCK;
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1; // Odd step so the probe sequence covers the block
+        for (int i = 0; i < numHashes; i++) {
+            int bit = (h1 + i * h2) & (BLOCK_BITS - 1);
+            words[base + (bit >>> 6)] |= 1L << bit;
+        }
+        insertedCount++;
+    }
+
+    /**
+     * Checks whether a key may be present.
+     * @param key The key to test.
+     * @return False if the key is definitely absent, true if it may be present.
+     */
+    public boolean mightContain(int key) {
+        probes++;
+        long hash = mix(key);
+        int base = blockOf(hash) * WORDS_PER_BLOCK;
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < numHashes; i++) {
+            int bit = (h1 + i * h2) & (BLOCK_BITS - 1);
+            if ((words[base + (bit >>> 6)] & (1L << bit)) == 0) {
+                negatives++;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Records that a key was deleted from the tree.
+     * The bits stay set, so the key becomes a source of false positives until the next rebuild.
+     */
+    public void recordDeletion() {
+        staleCount++;
+    }
+
+    /**
+     * Records that a "maybe" answer turned out to be a miss in the tree.
+     */
+    public void recordFalsePositive() {
+        falsePositives++;
+    }
+
+    /**
+     * Tells whether the filter has drifted far enough from the tree to be rebuilt.
+     * This happens when half of the added keys are stale or the capacity is exceeded twice over.
+     * @return True if a rebuild is recommended.
+     */
+    public boolean needsRebuild() {
+        return staleCount > insertedCount / 2 || insertedCount > 2 * capacity;
+    }
+
+    /**
+     * Estimates the false-positive rate from the current load of the filter.
+     * @return Expected probability that an absent key is reported as present.
+     */
+    public double getExpectedFalsePositiveRate() {
+        double bits = (double) numBlocks * BLOCK_BITS;
+        return Math.pow(1 - Math.exp(-numHashes * insertedCount / bits), numHashes);
+    }
+
+    /**
+     * Computes the false-positive rate observed on lookups of absent keys so far.
+     * @return Fraction of absent-key probes that were not filtered out.
+     */
+    public double getObservedFalsePositiveRate() {
+        long absentProbes = negatives + falsePositives;
+        return absentProbes == 0 ? 0.0 : (double) falsePositives / absentProbes;
+    }
+
+    /**
+     * Gets the memory used by the bit array.
+     * @return Size of the filter in bytes.
+     */
+    public long getMemoryBytes() {
+        return (long) words.length * Long.BYTES;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getInsertedCount() {
+        return insertedCount;
+    }
+
+    public int getStaleCount() {
+        return staleCount;
+    }
+
+    public long getProbeCount() {
+        return probes;
+    }
+
+    public long getNegativeCount() {
+        return negatives;
+    }
+
+    public long getFalsePositiveCount() {
+        return falsePositives;
+    }
+
+    /**
+     * Picks the block for a hash using the upper bits.
+     * @param hash 64-bit hash of a key.
+     * @return Block index in [0, numBlocks).
+     */
+    private int blockOf(long hash) {
+        return (int) (((hash >>> 41) * numBlocks) >>> 23);
+    }
+
+    /**
+     * Scrambles a key into a 64-bit hash (SplitMix64 finalizer).
+     * @param key The key to hash.
+     * @return Well-distributed 64-bit hash.
+     */
+    static long mix(int key) {
+        long z = key * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,398 @@
+package com.database.indexing;
+
+import java.util.Arrays;
+
+/**
+ * Write-optimized B-Tree (B-epsilon tree) for int keys.
+ * Keys live in the leaves, and every internal node carries a sorted message buffer.
+ * insert() and delete() only add a message to the root buffer; when a buffer fills up,
+ * the messages for the child with the most pending messages are pushed down in one batch.
+ * This amortizes node splits and writes over many updates at the cost of checking
+ * the buffers on the search path. Each key is stored at most once.
+ */
+public class BufferedBTree {
+    private static final byte INSERT = 1;
+    private static final byte DELETE = 2;
+
+    private final int degree;
+    private final int bufferCapacity;
+    private final int maxKeys;     // Maximum keys in a leaf
+    private final int maxChildren; // Maximum children of an internal node
+    private Node root;
+    private int[] scratchKeys = new int[0]; // Reused merge output, copied back into the target node
+    private byte[] scratchOps = new byte[0];
+
+    /**
+     * Node of the buffered tree.
+     * Leaves hold keys; internal nodes hold pivots, children and a message buffer.
+     * Child i of an internal node covers keys k with keys[i - 1] <= k < keys[i].
+     */
+    private static class Node {
+        int[] keys;      // Leaf keys or internal pivots, ascending
+        int numKeys;
+        Node[] children; // Null for leaves
+        int[] bufferKeys; // Pending message keys, ascending and unique
+        byte[] bufferOps; // Pending message types aligned with bufferKeys
+        int bufferSize;
+
+        /**
+         * Constructor to create an empty node.
+         * @param isLeaf True for a leaf node.
+         * @param capacity Initial capacity of the key array.
+         * @param bufferCapacity Initial capacity of the message buffer (internal nodes only).
+         */
+        Node(boolean isLeaf, int capacity, int bufferCapacity) {
+            this.keys = new int[capacity];
+            if (!isLeaf) {
+                this.children = new Node[capacity + 1];
+                this.bufferKeys = new int[bufferCapacity];
+                this.bufferOps = new byte[bufferCapacity];
+            }
+        }
+
+        boolean isLeaf() {
+            return children == null;
+        }
+    }
+
+    /**
+     * Constructor to create a buffered tree with a default buffer size
+     * of eight messages per child slot, so a flush moves a useful batch.
+     * @param degree Minimum degree of the tree (nodes hold at most 2 * degree - 1 keys).
+     */
+    public BufferedBTree(int degree) {
+        this(degree, Math.max(64, 16 * degree));
+    }
+
+    /**
+     * Constructor to create a buffered tree.
+     * @param degree Minimum degree of the tree (nodes hold at most 2 * degree - 1 keys).
+     * @param bufferCapacity Number of messages an internal node buffers before flushing.
+     */
+    public BufferedBTree(int degree, int bufferCapacity) {
+        if (degree < 2) throw new IllegalArgumentException("Degree must be at least 2");
+        if (bufferCapacity < 1) throw new IllegalArgumentException("Buffer capacity must be positive");
+        this.degree = degree;
+        this.bufferCapacity = bufferCapacity;
+        this.maxKeys = 2 * degree - 1;
+        this.maxChildren = 2 * degree;
+        this.root = new Node(true, maxKeys + 1, 0);
+    }
+
+    /**
+     * Inserts a key by adding an insert message at the root.
+     * @param key The key to insert.
+     */
+    public void insert(int key) {
+        put(key, INSERT);
+    }
+
+    /**
+     * Deletes a key by adding a delete message at the root.
+     * @param key The key to delete.
+     */
+    public void delete(int key) {
+        put(key, DELETE);
+    }
+
+    /**
+     * Searches for a key. The first message found on the root-to-leaf path is the
+     * newest update for the key; if there is none, the leaf decides.
+     * @param key The key to search for.
+     * @return True if the key is found, false otherwise.
+     */
+    public boolean search(int key) {
+        Node node = root;
+        while (!node.isLeaf()) {
+            int pos = Arrays.binarySearch(node.bufferKeys, 0, node.bufferSize, key);
+            if (pos >= 0) return node.bufferOps[pos] == INSERT;
+            node = node.children[childIndex(node, key)];
+        }
+        return Arrays.binarySearch(node.keys, 0, node.numKeys, key) >= 0;
+    }
+
+    /**
+     * Calculates the height of the tree (edges from root to leaf).
+     * @return The height of the tree.
+     */
+    public int getHeight() {
+        int height = 0;
+        Node current = root;
+        while (!current.isLeaf()) {
+            height++;
+            current = current.children[0];
+        }
+        return height;
+    }
+
+    /**
+     * Gets the number of nodes in the tree.
+     * @return The total number of nodes.
+     */
+    public int getNodeCount() {
+        return countNodes(root);
+    }
+
+    /**
+     * Gets the number of messages still waiting in buffers.
+     * @return Total buffered messages.
+     */
+    public int getBufferedMessageCount() {
+        return countMessages(root);
+    }
+
+    private int countNodes(Node node) {
+        int count = 1;
+        if (!node.isLeaf()) {
+            for (int i = 0; i <= node.numKeys; i++) count += countNodes(node.children[i]);
+        }
+        return count;
+    }
+
+    private int countMessages(Node node) {
+        if (node.isLeaf()) return 0;
+        int count = node.bufferSize;
+        for (int i = 0; i <= node.numKeys; i++) count += countMessages(node.children[i]);
+        return count;
+    }
+
+    /**
+     * Adds a message at the root, flushing and splitting as needed.
+     * @param key The key of the message.
+     * @param op INSERT or DELETE.
+     */
+    private void put(int key, byte op) {
+        if (root.isLeaf()) {
+            applyToLeaf(root, new int[]{key}, new byte[]{op}, 0, 1);
+        } else {
+            addToBuffer(root, key, op);
+            if (root.bufferSize >= bufferCapacity) flush(root);
+        }
+
+        if (isOverflowing(root)) {
+            Node newRoot = new Node(false, maxKeys + 1, bufferCapacity);
+            newRoot.children[0] = root;
+            root = newRoot;
+            splitChild(root, 0);
+        }
+        // Collapse roots left with a single child and nothing buffered
+        while (!root.isLeaf() && root.numKeys == 0 && root.bufferSize == 0) {
+            root = root.children[0];
+        }
+    }
+
+    /**
+     * Pushes the buffered messages of the child with the most pending messages down one level,
+     * then splits or removes that child if its size went out of bounds.
+     * @param node Internal node whose buffer is full.
+     */
+    private void flush(Node node) {
+        // Messages for one child form a contiguous range of the sorted buffer
+        int best = 0, bestFrom = 0, bestTo = 0;
+        int from = 0;
+        for (int i = 0; i <= node.numKeys; i++) {
+            int to = i < node.numKeys ? lowerBound(node.bufferKeys, node.bufferSize, node.keys[i]) : node.bufferSize;
+            if (to - from > bestTo - bestFrom) {
+                best = i;
+                bestFrom = from;
+                bestTo = to;
+            }
+            from = to;
+        }
+
+        Node child = node.children[best];
+        if (child.isLeaf()) {
+            applyToLeaf(child, node.bufferKeys, node.bufferOps, bestFrom, bestTo);
+        } else {
+            mergeIntoBuffer(child, node.bufferKeys, node.bufferOps, bestFrom, bestTo);
+            while (child.bufferSize >= bufferCapacity) flush(child);
+        }
+
+        // Drop the flushed range from this buffer
+        System.arraycopy(node.bufferKeys, bestTo, node.bufferKeys, bestFrom, node.bufferSize - bestTo);
+        System.arraycopy(node.bufferOps, bestTo, node.bufferOps, bestFrom, node.bufferSize - bestTo);
+        node.bufferSize -= bestTo - bestFrom;
+
+        if (child.isLeaf() && child.numKeys == 0 && node.numKeys > 0) {
+            removeChild(node, best);
+        } else if (isOverflowing(child)) {
+            splitChild(node, best);
+        }
+    }
+
+    /**
+     * Adds a single message to an internal node's buffer, replacing an older message for the same key.
+     */
+    private void addToBuffer(Node node, int key, byte op) {
+        int pos = Arrays.binarySearch(node.bufferKeys, 0, node.bufferSize, key);
+        if (pos >= 0) {
+            node.bufferOps[pos] = op;
+            return;
+        }
+        pos = -pos - 1;
+        if (node.bufferSize == node.bufferKeys.length) {
+            node.bufferKeys = Arrays.copyOf(node.bufferKeys, node.bufferSize * 2);
+            node.bufferOps = Arrays.copyOf(node.bufferOps, node.bufferSize * 2);
+        }
+        System.arraycopy(node.bufferKeys, pos, node.bufferKeys, pos + 1, node.bufferSize - pos);
+        System.arraycopy(node.bufferOps, pos, node.bufferOps, pos + 1, node.bufferSize - pos);
+        node.bufferKeys[pos] = key;
+        node.bufferOps[pos] = op;
+        node.bufferSize++;
+    }
+
+    /**
+     * Merges a batch of newer messages into an internal node's buffer.
+     * For keys present in both, the incoming message wins.
+     */
+    private void mergeIntoBuffer(Node node, int[] msgKeys, byte[] msgOps, int from, int to) {
+        ensureScratch(node.bufferSize + to - from);
+        int i = 0, j = from, n = 0;
+        while (i < node.bufferSize || j < to) {
+            if (j == to || (i < node.bufferSize && node.bufferKeys[i] < msgKeys[j])) {
+                scratchKeys[n] = node.bufferKeys[i];
+                scratchOps[n++] = node.bufferOps[i++];
+            } else {
+                if (i < node.bufferSize && node.bufferKeys[i] == msgKeys[j]) i++; // Older message is replaced
+                scratchKeys[n] = msgKeys[j];
+                scratchOps[n++] = msgOps[j++];
+            }
+        }
+        if (n > node.bufferKeys.length) {
+            node.bufferKeys = new int[n];
+            node.bufferOps = new byte[n];
+        }
+        System.arraycopy(scratchKeys, 0, node.bufferKeys, 0, n);
+        System.arraycopy(scratchOps, 0, node.bufferOps, 0, n);
+        node.bufferSize = n;
+    }
+
+    /**
+     * Applies a batch of messages to a leaf by merging them with its sorted keys.
+     * The leaf may end up over- or underfull; the caller fixes that.
+     */
+    private void applyToLeaf(Node leaf, int[] msgKeys, byte[] msgOps, int from, int to) {
+        ensureScratch(leaf.numKeys + to - from);
+        int i = 0, j = from, n = 0;
+        while (i < leaf.numKeys || j < to) {
+            if (j == to || (i < leaf.numKeys && leaf.keys[i] < msgKeys[j])) {
+                scratchKeys[n++] = leaf.keys[i++];
+            } else {
+                if (i < leaf.numKeys && leaf.keys[i] == msgKeys[j]) i++; // Message overrides the stored key
+                if (msgOps[j] == INSERT) scratchKeys[n++] = msgKeys[j];
+                j++;
+            }
+        }
+        if (n > leaf.keys.length) leaf.keys = new int[n];
+        System.arraycopy(scratchKeys, 0, leaf.keys, 0, n);
+        leaf.numKeys = n;
+    }
+
+    private void ensureScratch(int size) {
+        if (size > scratchKeys.length) {
+            scratchKeys = new int[size * 2];
+            scratchOps = new byte[size * 2];
+        }
+    }
+
+    /**
+     * Replaces an oversized child with as many evenly filled nodes as needed and
+     * inserts the separating pivots into the parent.
+     * @param parent Internal node holding the child.
+     * @param index Position of the child in the parent.
+     */
+    private void splitChild(Node parent, int index) {
+        Node child = parent.children[index];
+        int units = child.isLeaf() ? child.numKeys : child.numKeys + 1;
+        int limit = child.isLeaf() ? maxKeys : maxChildren;
+        int pieces = (units + limit - 1) / limit;
+        Node[] parts = new Node[pieces];
+        int[] separators = new int[pieces - 1];
+
+        int start = 0;
+        int bufferStart = 0;
+        for (int p = 0; p < pieces; p++) {
+            int end = (int) ((long) units * (p + 1) / pieces); // Spread units evenly
+            int count = end - start;
+            if (child.isLeaf()) {
+                Node part = new Node(true, maxKeys + 1, 0);
+                System.arraycopy(child.keys, start, part.keys, 0, count);
+                part.numKeys = count;
+                if (p > 0) separators[p - 1] = part.keys[0];
+                parts[p] = part;
+            } else {
+                // Children [start, end) with the pivots between them; the pivot after the piece moves up
+                Node part = new Node(false, maxKeys + 1, bufferCapacity);
+                System.arraycopy(child.children, start, part.children, 0, count);
+                System.arraycopy(child.keys, start, part.keys, 0, count - 1);
+                part.numKeys = count - 1;
+                int bufferEnd = child.bufferSize;
+                if (p < pieces - 1) {
+                    separators[p] = child.keys[end - 1];
+                    bufferEnd = lowerBound(child.bufferKeys, child.bufferSize, separators[p]);
+                }
+                mergeIntoBuffer(part, child.bufferKeys, child.bufferOps, bufferStart, bufferEnd);
+                bufferStart = bufferEnd;
+                parts[p] = part;
+            }
+            start = end;
+        }
+
+        // Splice the pieces and separators into the parent
+        int extra = pieces - 1;
+        ensureCapacity(parent, parent.numKeys + extra);
+        System.arraycopy(parent.keys, index, parent.keys, index + extra, parent.numKeys - index);
+        System.arraycopy(parent.children, index + 1, parent.children, index + 1 + extra, parent.numKeys - index);
+        System.arraycopy(separators, 0, parent.keys, index, extra);
+        System.arraycopy(parts, 0, parent.children, index, pieces);
+        parent.numKeys += extra;
+    }
+
+    /**
+     * Removes an empty leaf from its parent together with one adjacent pivot.
+     */
+    private void removeChild(Node parent, int index) {
+        int pivot = index == 0 ? 0 : index - 1;
+        System.arraycopy(parent.keys, pivot + 1, parent.keys, pivot, parent.numKeys - pivot - 1);
+        System.arraycopy(parent.children, index + 1, parent.children, index, parent.numKeys - index);
+        parent.children[parent.numKeys] = null;
+        parent.numKeys--;
+    }
+
+    private void ensureCapacity(Node node, int numKeys) {
+        if (numKeys > node.keys.length) {
+            node.keys = Arrays.copyOf(node.keys, numKeys * 2);
+            node.children = Arrays.copyOf(node.children, numKeys * 2 + 1);
+        }
+    }
+
+    private boolean isOverflowing(Node node) {
+        return node.isLeaf() ? node.numKeys > maxKeys : node.numKeys + 1 > maxChildren;
+    }
+
+    /**
+     * Finds the child responsible for a key: the number of pivots that are <= key.
+     */
+    private static int childIndex(Node node, int key) {
+        int lo = 0, hi = node.numKeys;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (node.keys[mid] <= key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Finds the first position in a sorted array prefix whose value is >= key.
+     */
+    private static int lowerBound(int[] values, int size, int key) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
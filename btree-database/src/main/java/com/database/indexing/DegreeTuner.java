@@ -0,0 +1,234 @@
+package com.database.indexing;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * Picks B-Tree degrees for the host by measuring them.
+ * Candidate degrees are chosen so that a node's key array spans 1, 2, 4, ... cache
+ * lines, up to the point where a whole node no longer fits in half the L1 data cache.
+ * Each candidate is timed on random inserts and random lookups; the cheapest degree
+ * for a given read/write mix is then a weighted minimum of the two costs.
+ *
+ * Cache sizes are read from /sys on Linux; elsewhere common defaults are assumed.
+ */
+public class DegreeTuner {
+    public static final int DEFAULT_LINE_SIZE = 64;
+    public static final int DEFAULT_L1_SIZE = 32 * 1024;
+    public static final int DEFAULT_L2_SIZE = 1024 * 1024;
+
+    private static final Path CACHE_DIR = Paths.get("/sys/devices/system/cpu/cpu0/cache");
+    private static final int REPEATS = 3; // Best of several runs, to filter out GC and JIT noise
+
+    private final int lineSize;
+    private final int l1Size;
+    private final int l2Size;
+
+    /**
+     * Measured costs of a set of degrees.
+     */
+    public static final class Calibration {
+        private final int[] degrees;
+        private final double[] readNanos;
+        private final double[] writeNanos;
+
+        /**
+         * Constructor to wrap measurements.
+         * @param degrees Degrees that were measured.
+         * @param readNanos Nanoseconds per lookup for each degree.
+         * @param writeNanos Nanoseconds per insert for each degree.
+         */
+        public Calibration(int[] degrees, double[] readNanos, double[] writeNanos) {
+            if (degrees.length == 0 || readNanos.length != degrees.length || writeNanos.length != degrees.length) {
+                throw new IllegalArgumentException("Need one read and one write cost per degree");
+            }
+            this.degrees = degrees.clone();
+            this.readNanos = readNanos.clone();
+            this.writeNanos = writeNanos.clone();
+        }
+
+        /**
+         * Estimates the cost of one operation at a degree for a read/write mix.
+         * @param degree One of the measured degrees.
+         * @param writeFraction Fraction of operations that are writes, between 0 and 1.
+         * @return Expected nanoseconds per operation.
+         */
+        public double getCost(int degree, double writeFraction) {
+            for (int i = 0; i < degrees.length; i++) {
+                if (degrees[i] == degree) return (1 - writeFraction) * readNanos[i] + writeFraction * writeNanos[i];
+            }
+            throw new IllegalArgumentException("Degree " + degree + " was not measured");
+        }
+
+        /**
+         * Finds the measured degree with the lowest cost for a read/write mix.
+         * @param writeFraction Fraction of operations that are writes, between 0 and 1.
+         * @return The cheapest degree.
+         */
+        public int getBestDegree(double writeFraction) {
+            int best = degrees[0];
+            for (int degree : degrees) {
+                if (getCost(degree, writeFraction) < getCost(best, writeFraction)) best = degree;
+            }
+            return best;
+        }
+
+        public int[] getDegrees() {
+            return degrees.clone();
+        }
+
+        public double getReadNanos(int index) {
+            return readNanos[index];
+        }
+
+        public double getWriteNanos(int index) {
+            return writeNanos[index];
+        }
+    }
+
+    /**
+     * Constructor to create a tuner for the cache sizes of this host.
+     */
+    public DegreeTuner() {
+        this(readCacheValue(1, "coherency_line_size", DEFAULT_LINE_SIZE),
+                readCacheValue(1, "size", DEFAULT_L1_SIZE),
+                readCacheValue(2, "size", DEFAULT_L2_SIZE));
+    }
+
+    /**
+     * Constructor to create a tuner for given cache sizes.
+     * @param lineSize Cache line size in bytes.
+     * @param l1Size L1 data cache size in bytes.
+     * @param l2Size L2 cache size in bytes.
+     */
+    public DegreeTuner(int lineSize, int l1Size, int l2Size) {
+        this.lineSize = lineSize;
+        this.l1Size = l1Size;
+        this.l2Size = l2Size;
+    }
+
+    /**
+     * Lists the degrees worth measuring: key arrays of 1, 2, 4, ... cache lines, as long
+     * as the whole node (keys, values and child references) fits in half the L1 cache.
+     * @return Candidate degrees in ascending order.
+     */
+    public int[] candidateDegrees() {
+        IntList degrees = new IntList();
+        for (int lines = 1; ; lines *= 2) {
+            int keysPerNode = lines * lineSize / Integer.BYTES;
+            int degree = Math.max(2, (keysPerNode + 1) / 2); // 2 * degree - 1 keys fill the lines
+            if (nodeBytes(degree) > l1Size / 2) break;
+            if (degrees.size() == 0 || degrees.get(degrees.size() - 1) != degree) degrees.add(degree);
+        }
+        if (degrees.size() == 0) degrees.add(2);
+        return degrees.toArray();
+    }
+
+    /**
+     * Measures every candidate degree on a tree of the given size.
+     * @param treeSize Number of random keys to insert; pick it so the tree outgrows the L2 cache.
+     * @param lookups Number of random lookups to time.
+     * @return The measurements.
+     */
+    public Calibration calibrate(int treeSize, int lookups) {
+        return calibrate(candidateDegrees(), treeSize, lookups);
+    }
+
+    /**
+     * Measures the given degrees. Each degree is timed on inserting treeSize random keys
+     * into an empty tree and on looking up random present keys.
+     * @param degrees Degrees to measure.
+     * @param treeSize Number of random keys to insert.
+     * @param lookups Number of random lookups to time.
+     * @return The measurements.
+     */
+    public Calibration calibrate(int[] degrees, int treeSize, int lookups) {
+        Random random = new Random(42);
+        int[] keys = new int[treeSize];
+        for (int i = 0; i < treeSize; i++) keys[i] = random.nextInt(Integer.MAX_VALUE);
+        int[] probes = new int[lookups];
+        for (int i = 0; i < lookups; i++) probes[i] = keys[random.nextInt(treeSize)];
+
+        double[] readNanos = new double[degrees.length];
+        double[] writeNanos = new double[degrees.length];
+        for (int d = 0; d < degrees.length; d++) {
+            long bestWrite = Long.MAX_VALUE;
+            long bestRead = Long.MAX_VALUE;
+            for (int r = 0; r < REPEATS; r++) {
+                BTree bTree = new BTree(degrees[d]);
+                long startTime = System.nanoTime();
+                bTree.insertAll(keys);
+                bestWrite = Math.min(bestWrite, System.nanoTime() - startTime);
+
+                startTime = System.nanoTime();
+                if (bTree.searchAll(probes) != lookups) throw new IllegalStateException("Lookup missed a present key");
+                bestRead = Math.min(bestRead, System.nanoTime() - startTime);
+            }
+            writeNanos[d] = (double) bestWrite / treeSize;
+            readNanos[d] = (double) bestRead / lookups;
+        }
+        return new Calibration(degrees, readNanos, writeNanos);
+    }
+
+    /**
+     * Suggests a tree size for calibration: one key per four bytes of L2, which with
+     * values, child references and partly filled nodes takes several times the L2 cache,
+     * so lookups see memory latency.
+     * @return Number of keys.
+     */
+    public int suggestedTreeSize() {
+        return Math.max(100000, l2Size / Integer.BYTES);
+    }
+
+    public int getLineSize() {
+        return lineSize;
+    }
+
+    public int getL1Size() {
+        return l1Size;
+    }
+
+    public int getL2Size() {
+        return l2Size;
+    }
+
+    /**
+     * Approximate heap footprint of a node: the key, value and child arrays.
+     */
+    private static int nodeBytes(int degree) {
+        return (2 * degree - 1) * 2 * Integer.BYTES + 2 * degree * Integer.BYTES; // Compressed references
+    }
+
+    /**
+     * Reads a value of the data or unified cache at a level from /sys, e.g. "32K".
+     * @return The value in bytes, or the default if it cannot be read.
+     */
+    private static int readCacheValue(int level, String name, int defaultValue) {
+        if (!Files.isDirectory(CACHE_DIR)) return defaultValue;
+        for (int index = 0; index < 8; index++) {
+            Path dir = CACHE_DIR.resolve("index" + index);
+            try {
+                if (!Files.isDirectory(dir)) break;
+                if (Integer.parseInt(readLine(dir.resolve("level"))) != level) continue;
+                if (readLine(dir.resolve("type")).equals("Instruction")) continue;
+                String value = readLine(dir.resolve(name));
+                int multiplier = 1;
+                if (value.endsWith("K")) multiplier = 1024;
+                else if (value.endsWith("M")) multiplier = 1024 * 1024;
+                if (multiplier > 1) value = value.substring(0, value.length() - 1);
+                return Integer.parseInt(value) * multiplier;
+            } catch (IOException | NumberFormatException e) {
+                return defaultValue;
+            }
+        }
+        return defaultValue;
+    }
+
+    private static String readLine(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.US_ASCII).trim();
+    }
+}
@@ -0,0 +1,306 @@
+package com.database.indexing;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Blocking client for IndexServer.
+ * Requests are encoded into a send buffer by the send* methods and only written on
+ * flush(), so many frames can be pipelined per network round trip; receive() then
+ * returns the responses in the order the requests were sent. The get/put/delete/range
+ * methods are synchronous shortcuts that send one request and wait for its response.
+ * A client is not thread-safe.
+ */
+public class IndexClient {
+    private final SocketChannel channel;
+    private ByteBuffer out = ByteBuffer.allocate(4096);
+    private ByteBuffer in = ByteBuffer.allocate(4096);
+    private int nextRequestId;
+
+    /**
+     * Decoded response frame.
+     */
+    public static class Response {
+        private final byte status;
+        private final int requestId;
+        private final int count;
+        private final boolean[] found; // GET and DELETE
+        private final int[] keys;      // RANGE
+        private final int[] values;    // GET and RANGE
+
+        private Response(byte status, int requestId, int count,
+                         boolean[] found, int[] keys, int[] values) {
+            this.status = status;
+            this.requestId = requestId;
+            this.count = count;
+            this.found = found;
+            this.keys = keys;
+            this.values = values;
+        }
+
+        public int getRequestId() {
+            return requestId;
+        }
+
+        public boolean isOk() {
+            return status == IndexProtocol.STATUS_OK;
+        }
+
+        /**
+         * Gets the number of keys looked up, written, deleted or returned.
+         */
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * Gets, per requested key, whether it was found (GET) or deleted (DELETE).
+         */
+        public boolean[] getFound() {
+            return found;
+        }
+
+        /**
+         * Gets the keys returned by a RANGE request.
+         */
+        public int[] getKeys() {
+            return keys;
+        }
+
+        /**
+         * Gets the values returned by a GET or RANGE request.
+         */
+        public int[] getValues() {
+            return values;
+        }
+    }
+
+    /**
+     * Constructor to connect to a server.
+     * @param host Server host name.
+     * @param port Server port.
+     * @throws IOException If the connection fails.
+     */
+    public IndexClient(String host, int port) throws IOException {
+        channel = SocketChannel.open(new InetSocketAddress(host, port));
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        in.flip(); // The input buffer is kept in read mode between calls
+    }
+
+    /**
+     * Queues a batched GET.
+     * @param keys Keys to look up.
+     * @return Request id.
+     */
+    public int sendGet(int... keys) {
+        int id = beginRequest(IndexProtocol.GET, 4 + 4 * keys.length);
+        out.putInt(keys.length);
+        for (int key : keys) out.putInt(key);
+        return id;
+    }
+
+    /**
+     * Queues a batched PUT; existing keys are overwritten.
+     * @param keys Keys to write.
+     * @param values Values, parallel to keys.
+     * @return Request id.
+     */
+    public int sendPut(int[] keys, int[] values) {
+        if (keys.length != values.length) throw new IllegalArgumentException("Keys and values differ in length");
+        int id = beginRequest(IndexProtocol.PUT, 4 + 8 * keys.length);
+        out.putInt(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            out.putInt(keys[i]);
+            out.putInt(values[i]);
+        }
+        return id;
+    }
+
+    /**
+     * Queues a batched DELETE.
+     * @param keys Keys to delete.
+     * @return Request id.
+     */
+    public int sendDelete(int... keys) {
+        int id = beginRequest(IndexProtocol.DELETE, 4 + 4 * keys.length);
+        out.putInt(keys.length);
+        for (int key : keys) out.putInt(key);
+        return id;
+    }
+
+    /**
+     * Queues a RANGE scan.
+     * @param low Lower key bound (inclusive).
+     * @param high Upper key bound (inclusive).
+     * @param limit Maximum number of entries to return.
+     * @return Request id.
+     */
+    public int sendRange(int low, int high, int limit) {
+        int id = beginRequest(IndexProtocol.RANGE, 12);
+        out.putInt(low);
+        out.putInt(high);
+        out.putInt(limit);
+        return id;
+    }
+
+    /**
+     * Writes all queued requests to the server.
+     * @throws IOException If the connection fails.
+     */
+    public void flush() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) channel.write(out);
+        out.clear();
+    }
+
+    /**
+     * Waits for and decodes the next response.
+     * @return The response.
+     * @throws IOException If the connection fails or closes.
+     */
+    public Response receive() throws IOException {
+        fill(4);
+        int length = in.getInt();
+        if (length < IndexProtocol.RESPONSE_HEADER || length > IndexProtocol.MAX_FRAME) {
+            throw new IOException("Corrupt response frame of length " + length);
+        }
+        fill(length);
+        byte opcode = in.get();
+        byte status = in.get();
+        int requestId = in.getInt();
+        if (status != IndexProtocol.STATUS_OK) return new Response(status, requestId, 0, null, null, null);
+
+        int n = in.getInt();
+        boolean[] found = null;
+        int[] keys = null;
+        int[] values = null;
+        switch (opcode) {
+            case IndexProtocol.GET:
+                found = new boolean[n];
+                values = new int[n];
+                for (int i = 0; i < n; i++) {
+                    found[i] = in.get() != 0;
+                    values[i] = in.getInt();
+                }
+                break;
+            case IndexProtocol.DELETE:
+                found = new boolean[n];
+                for (int i = 0; i < n; i++) found[i] = in.get() != 0;
+                break;
+            case IndexProtocol.RANGE:
+                keys = new int[n];
+                values = new int[n];
+                for (int i = 0; i < n; i++) {
+                    keys[i] = in.getInt();
+                    values[i] = in.getInt();
+                }
+                break;
+            default:
+                break; // PUT carries only the count
+        }
+        return new Response(status, requestId, n, found, keys, values);
+    }
+
+    /**
+     * Looks up keys and waits for the result.
+     * @param keys Keys to look up.
+     * @return The GET response.
+     * @throws IOException If the connection fails.
+     */
+    public Response get(int... keys) throws IOException {
+        sendGet(keys);
+        flush();
+        return receive();
+    }
+
+    /**
+     * Writes key/value pairs and waits for the acknowledgement.
+     * @param keys Keys to write.
+     * @param values Values, parallel to keys.
+     * @return The PUT response.
+     * @throws IOException If the connection fails.
+     */
+    public Response put(int[] keys, int[] values) throws IOException {
+        sendPut(keys, values);
+        flush();
+        return receive();
+    }
+
+    /**
+     * Deletes keys and waits for the result.
+     * @param keys Keys to delete.
+     * @return The DELETE response.
+     * @throws IOException If the connection fails.
+     */
+    public Response delete(int... keys) throws IOException {
+        sendDelete(keys);
+        flush();
+        return receive();
+    }
+
+    /**
+     * Scans a key range and waits for the result.
+     * @param low Lower key bound (inclusive).
+     * @param high Upper key bound (inclusive).
+     * @param limit Maximum number of entries to return.
+     * @return The RANGE response.
+     * @throws IOException If the connection fails.
+     */
+    public Response range(int low, int high, int limit) throws IOException {
+        sendRange(low, high, limit);
+        flush();
+        return receive();
+    }
+
+    /**
+     * Closes the connection.
+     */
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+
+    /**
+     * Writes a request header, growing the send buffer if needed.
+     * @return The new request id.
+     */
+    private int beginRequest(byte opcode, int payloadSize) {
+        int needed = 4 + IndexProtocol.REQUEST_HEADER + payloadSize;
+        if (out.remaining() < needed) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + needed));
+            out.flip();
+            bigger.put(out);
+            out = bigger;
+        }
+        int id = nextRequestId++;
+        out.putInt(IndexProtocol.REQUEST_HEADER + payloadSize);
+        out.put(opcode);
+        out.putInt(id);
+        return id;
+    }
+
+    /**
+     * Reads from the socket until at least the given number of bytes is buffered.
+     */
+    private void fill(int bytes) throws IOException {
+        if (in.remaining() >= bytes) return;
+        if (in.capacity() < bytes) {
+            ByteBuffer bigger = ByteBuffer.allocate(bytes);
+            bigger.put(in);
+            bigger.flip();
+            in = bigger;
+        }
+        in.compact();
+        while (in.position() < bytes) {
+            if (channel.read(in) == -1) throw new EOFException("Server closed the connection");
+        }
+        in.flip();
+    }
+}
@@ -0,0 +1,43 @@
+package com.database.indexing;
+
+/**
+ * Constants of the binary protocol spoken by IndexServer and IndexClient.
+ * All integers are big-endian.
+ *
+ * Request frame:  int length | byte opcode | int requestId | payload
+ * Response frame: int length | byte opcode | byte status | int requestId | payload
+ *
+ * The length covers everything after the length field. Requests on one connection
+ * may be pipelined; responses come back in request order.
+ *
+ * Payloads:
+ *   GET    request: int n, n * int key           response: int n, n * (byte found, int value)
+ *   PUT    request: int n, n * (int key, int value) response: int n
+ *   DELETE request: int n, n * int key           response: int n, n * byte deleted
+ *   RANGE  request: int low, int high, int limit response: int n, n * (int key, int value)
+ *
+ * A GET of more than MAX_GET_KEYS keys is a legal frame but is answered with
+ * STATUS_ERROR, because its response would not fit in one. A RANGE response holds at
+ * most MAX_RANGE_ENTRIES entries, whatever the limit.
+ */
+final class IndexProtocol {
+    static final byte GET = 1;
+    static final byte PUT = 2;
+    static final byte DELETE = 3;
+    static final byte RANGE = 4;
+
+    static final byte STATUS_OK = 0;
+    static final byte STATUS_ERROR = 1;
+
+    static final int REQUEST_HEADER = 1 + 4;      // opcode + requestId
+    static final int RESPONSE_HEADER = 1 + 1 + 4; // opcode + status + requestId
+    static final int MAX_FRAME = 16 * 1024 * 1024;
+
+    // Most keys a GET may ask for, and most entries a RANGE response can carry,
+    // without the response frame exceeding MAX_FRAME
+    static final int MAX_GET_KEYS = (MAX_FRAME - RESPONSE_HEADER - 4) / 5;
+    static final int MAX_RANGE_ENTRIES = (MAX_FRAME - RESPONSE_HEADER - 4) / 8;
+
+    private IndexProtocol() {
+    }
+}
@@ -0,0 +1,358 @@
+package com.database.indexing;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Standalone network server for a B-Tree, speaking the binary protocol in IndexProtocol.
+ * A single NIO selector thread accepts connections, decodes every complete frame in a
+ * connection's input buffer (so pipelined requests are handled back to back), applies
+ * them to the tree and queues the responses. Because only this thread touches the tree,
+ * no locking is needed.
+ *
+ * Responses are backpressured: once a connection has OUTPUT_HIGH_WATER bytes of unsent
+ * responses, the server stops decoding its requests and stops reading from its socket
+ * until the client has taken the responses.
+ */
+public class IndexServer {
+    private static final int BUFFER_SIZE = 4096; // Initial size; buffers grow for large frames
+    private static final int RANGE_BATCH = 256; // Entries pulled from the cursor per call
+    private static final int OUTPUT_HIGH_WATER = 64 * 1024; // Unsent bytes at which decoding pauses
+
+    private final BTree tree;
+    private final ServerSocketChannel serverChannel;
+    private final Selector selector;
+    private Thread loopThread;
+    private volatile boolean running;
+    private volatile long frameCount;
+
+    // Scratch arrays for RANGE requests, reused across requests on the selector thread.
+    // rangeKeys/rangeValues grow to the largest result sent, batchKeys/batchValues stay fixed.
+    private int[] rangeKeys = new int[1024];
+    private int[] rangeValues = new int[1024];
+    private final int[] batchKeys = new int[RANGE_BATCH];
+    private final int[] batchValues = new int[RANGE_BATCH];
+
+    /**
+     * Per-connection input and output buffers.
+     */
+    private static class Connection {
+        ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);   // Filled by reads, drained by decoding
+        ByteBuffer out = ByteBuffer.allocate(BUFFER_SIZE);  // Filled by responses, drained by writes
+        boolean decodePaused;  // Frames may be left in 'in' until 'out' drains
+    }
+
+    /**
+     * Constructor to bind a server to a port. The server does not accept
+     * connections until start() is called.
+     * @param tree The tree to serve.
+     * @param port Port to listen on, or 0 for an ephemeral port.
+     * @throws IOException If the port cannot be bound.
+     */
+    public IndexServer(BTree tree, int port) throws IOException {
+        this.tree = tree;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port), 4096);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * Starts the selector thread.
+     */
+    public void start() {
+        running = true;
+        loopThread = new Thread(this::runLoop, "index-server");
+        loopThread.start();
+    }
+
+    /**
+     * Stops the selector thread and closes all connections.
+     */
+    public void close() {
+        running = false;
+        selector.wakeup();
+        try {
+            if (loopThread != null) loopThread.join();
+            for (SelectionKey key : selector.keys()) key.channel().close();
+            selector.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // Closing anyway; nothing left to report to
+        }
+    }
+
+    /**
+     * Gets the port the server is listening on.
+     * @return Local port number.
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Gets the number of request frames handled so far.
+     * @return Frame count.
+     */
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    private void runLoop() {
+        while (running) {
+            try {
+                selector.select();
+            } catch (IOException e) {
+                break;
+            }
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                try {
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) accept();
+                    if (key.isValid() && key.isReadable()) read(key);
+                    if (key.isValid() && key.isWritable()) write(key);
+                } catch (IOException | RuntimeException e) {
+                    // A failure on one connection must not end the loop that serves all the others
+                    closeConnection(key);
+                }
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            channel.register(selector, SelectionKey.OP_READ, new Connection());
+        }
+    }
+
+    /**
+     * Reads available bytes, handles the complete frames and sends the responses.
+     */
+    private void read(SelectionKey key) throws IOException {
+        SocketChannel channel = (SocketChannel) key.channel();
+        Connection conn = (Connection) key.attachment();
+        if (channel.read(conn.in) == -1) {
+            closeConnection(key);
+            return;
+        }
+        if (decodeFrames(key, conn)) write(key);
+    }
+
+    /**
+     * Handles every complete frame in the input buffer, or stops early once the output
+     * buffer passes the high-water mark.
+     * @return False if the connection was closed because of a corrupt frame.
+     */
+    private boolean decodeFrames(SelectionKey key, Connection conn) {
+        ByteBuffer in = conn.in;
+        in.flip();
+        conn.decodePaused = false;
+        while (in.remaining() >= 4) {
+            if (conn.out.position() >= OUTPUT_HIGH_WATER) {
+                conn.decodePaused = true; // The rest waits until the client reads its responses
+                break;
+            }
+            int length = in.getInt(in.position());
+            if (length < IndexProtocol.REQUEST_HEADER || length > IndexProtocol.MAX_FRAME) {
+                closeConnection(key); // Corrupt stream; the framing cannot be recovered
+                return false;
+            }
+            if (in.remaining() < 4 + length) {
+                if (4 + length > in.capacity()) {
+                    // Grow the input buffer to fit this frame
+                    ByteBuffer bigger = ByteBuffer.allocate(4 + length);
+                    bigger.put(in);
+                    conn.in = bigger;
+                    in = null;
+                }
+                break;
+            }
+            int frameEnd = in.position() + 4 + length;
+            in.position(in.position() + 4);
+            if (!handleFrame(in, frameEnd, conn)) {
+                closeConnection(key);
+                return false;
+            }
+            in.position(frameEnd);
+            frameCount++;
+        }
+        if (in != null) in.compact();
+        return true;
+    }
+
+    /**
+     * Writes queued responses. While responses are pending the connection only waits for
+     * OP_WRITE, so no more requests are read; once they are sent, frames left undecoded
+     * by backpressure are handled before reading resumes.
+     */
+    private void write(SelectionKey key) throws IOException {
+        SocketChannel channel = (SocketChannel) key.channel();
+        Connection conn = (Connection) key.attachment();
+        while (true) {
+            conn.out.flip();
+            channel.write(conn.out);
+            boolean pending = conn.out.hasRemaining();
+            conn.out.compact();
+            if (pending) {
+                key.interestOps(SelectionKey.OP_WRITE);
+                return;
+            }
+            if (!conn.decodePaused) {
+                key.interestOps(SelectionKey.OP_READ);
+                return;
+            }
+            if (!decodeFrames(key, conn)) return;
+        }
+    }
+
+    /**
+     * Decodes one request frame and appends its response.
+     * @param in Buffer positioned at the opcode.
+     * @param frameEnd Position just past the frame.
+     * @param conn Connection receiving the response.
+     * @return False if the frame is malformed.
+     */
+    private boolean handleFrame(ByteBuffer in, int frameEnd, Connection conn) {
+        byte opcode = in.get();
+        int requestId = in.getInt();
+        int payload = frameEnd - in.position();
+
+        switch (opcode) {
+            case IndexProtocol.GET: {
+                if (payload < 4) return false;
+                int n = in.getInt();
+                if (payload != 4 + 4L * n) return false;
+                if (n > IndexProtocol.MAX_GET_KEYS) {
+                    // The response would exceed MAX_FRAME, so refuse the batch but keep the connection
+                    beginResponse(conn, opcode, IndexProtocol.STATUS_ERROR, requestId, 0);
+                    return true;
+                }
+                ByteBuffer out = beginResponse(conn, opcode, IndexProtocol.STATUS_OK, requestId, 4 + 5 * n);
+                out.putInt(n);
+                for (int i = 0; i < n; i++) {
+                    int k = in.getInt();
+                    long found = tree.lookup(k);
+                    out.put((byte) (found == -1 ? 0 : 1));
+                    out.putInt(found == -1 ? 0 : (int) found);
+                }
+                return true;
+            }
+            case IndexProtocol.PUT: {
+                if (payload < 4) return false;
+                int n = in.getInt();
+                if (payload != 4 + 8L * n) return false;
+                for (int i = 0; i < n; i++) {
+                    int k = in.getInt();
+                    int value = in.getInt();
+                    tree.put(k, value);
+                }
+                beginResponse(conn, opcode, IndexProtocol.STATUS_OK, requestId, 4).putInt(n);
+                return true;
+            }
+            case IndexProtocol.DELETE: {
+                if (payload < 4) return false;
+                int n = in.getInt();
+                if (payload != 4 + 4L * n) return false;
+                ByteBuffer out = beginResponse(conn, opcode, IndexProtocol.STATUS_OK, requestId, 4 + n);
+                out.putInt(n);
+                for (int i = 0; i < n; i++) {
+                    int k = in.getInt();
+                    boolean found = tree.delete(k);
+                    out.put((byte) (found ? 1 : 0));
+                }
+                return true;
+            }
+            case IndexProtocol.RANGE: {
+                if (payload != 12) return false;
+                int low = in.getInt();
+                int high = in.getInt();
+                int limit = in.getInt();
+                if (limit < 0) return false;
+                int n = scanRange(low, high, limit);
+                ByteBuffer out = beginResponse(conn, opcode, IndexProtocol.STATUS_OK, requestId, 4 + 8 * n);
+                out.putInt(n);
+                for (int i = 0; i < n; i++) {
+                    out.putInt(rangeKeys[i]);
+                    out.putInt(rangeValues[i]);
+                }
+                return true;
+            }
+            default:
+                // Unknown opcode: the frame is well-formed, so reject it and keep the connection
+                beginResponse(conn, opcode, IndexProtocol.STATUS_ERROR, requestId, 0);
+                return true;
+        }
+    }
+
+    /**
+     * Collects up to limit entries with keys in [low, high], pulling them from a cursor in
+     * small batches and stopping at the first key above high, so a narrow range costs
+     * only what it returns whatever the limit.
+     * @return Number of entries collected into rangeKeys/rangeValues.
+     */
+    private int scanRange(int low, int high, int limit) {
+        if (low > high || limit == 0) return 0;
+        limit = Math.min(limit, IndexProtocol.MAX_RANGE_ENTRIES); // The response must fit in one frame
+        BTreeCursor cursor = new BTreeCursor(tree.root, low);
+        int n = 0;
+        while (n < limit) {
+            int got = cursor.next(batchKeys, batchValues, Math.min(RANGE_BATCH, limit - n));
+            if (got == 0) break;
+            if (rangeKeys.length < n + got) {
+                int size = Math.max(rangeKeys.length * 2, n + got);
+                rangeKeys = Arrays.copyOf(rangeKeys, size);
+                rangeValues = Arrays.copyOf(rangeValues, size);
+            }
+            for (int i = 0; i < got; i++) {
+                if (batchKeys[i] > high) return n; // Keys are sorted, so the range is done
+                rangeKeys[n] = batchKeys[i];
+                rangeValues[n++] = batchValues[i];
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Writes a response header and makes room for the payload.
+     * @return The output buffer, positioned at the start of the payload.
+     */
+    private ByteBuffer beginResponse(Connection conn, byte opcode, byte status, int requestId, int payloadSize) {
+        int needed = 4 + IndexProtocol.RESPONSE_HEADER + payloadSize;
+        if (conn.out.remaining() < needed) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(conn.out.capacity() * 2, conn.out.position() + needed));
+            conn.out.flip();
+            bigger.put(conn.out);
+            conn.out = bigger;
+        }
+        ByteBuffer out = conn.out;
+        out.putInt(IndexProtocol.RESPONSE_HEADER + payloadSize);
+        out.put(opcode);
+        out.put(status);
+        out.putInt(requestId);
+        return out;
+    }
+
+    private void closeConnection(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.database.indexing;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of ints for collecting query results without boxing.
+ */
+class IntList {
+    private int[] values = new int[16];
+    private int size;
+
+    void add(int value) {
+        if (size == values.length) values = Arrays.copyOf(values, size * 2);
+        values[size++] = value;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(int index) {
+        return values[index];
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
@@ -0,0 +1,326 @@
+package com.database.indexing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Log-structured merge (LSM) tree for int keys.
+ * Writes go to an in-memory memtable; when it fills up it is flushed as an
+ * immutable sorted run. Runs are grouped into levels with size-tiered compaction:
+ * once a level holds {@code fanout} runs they are merged into one run on the next level.
+ * Deletes are written as tombstones, and reads check the memtable and then the runs
+ * from newest to oldest. Unlike BTree, the LSM tree stores each key at most once.
+ */
+public class LSMTree {
+    private final int memtableCapacity;
+    private final int fanout;
+    private final ExecutorService compactor; // Null when compaction runs inline
+    private MemTable memtable;
+
+    // levels.get(i) holds the runs of level i, newest first.
+    // Every run on level i is newer than every run on level i + 1.
+    private final List<List<SortedRun>> levels = new ArrayList<>();
+    private Future<?> pendingCompaction;
+    private boolean compactionScheduled; // A background compaction is queued or has not yet found the levels done
+    private boolean closed; // Set by close(); later writes are rejected
+    private long flushCount;
+    private long compactionCount;
+
+    /**
+     * Constructor to create an LSM tree with inline compaction.
+     * @param memtableCapacity Number of keys buffered in memory before a flush.
+     * @param fanout Number of runs on a level that triggers a merge into the next level.
+     */
+    public LSMTree(int memtableCapacity, int fanout) {
+        this(memtableCapacity, fanout, false);
+    }
+
+    /**
+     * Constructor to create an LSM tree.
+     * @param memtableCapacity Number of keys buffered in memory before a flush.
+     * @param fanout Number of runs on a level that triggers a merge into the next level.
+     * @param backgroundCompaction True to merge runs on a background thread.
+     */
+    public LSMTree(int memtableCapacity, int fanout, boolean backgroundCompaction) {
+        if (memtableCapacity < 1) throw new IllegalArgumentException("Memtable capacity must be positive");
+        if (fanout < 2) throw new IllegalArgumentException("Fanout must be at least 2");
+        this.memtableCapacity = memtableCapacity;
+        this.fanout = fanout;
+        this.memtable = new MemTable(memtableCapacity);
+        this.compactor = backgroundCompaction ? Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "lsm-compaction");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    /**
+     * Inserts a key.
+     * @param key The key to insert.
+     * @throws IllegalStateException If the tree has been closed.
+     */
+    public synchronized void insert(int key) {
+        checkOpen();
+        memtable.put(key, SortedRun.LIVE);
+        if (memtable.isFull()) flush();
+    }
+
+    /**
+     * Deletes a key by writing a tombstone for it.
+     * @param key The key to delete.
+     * @throws IllegalStateException If the tree has been closed.
+     */
+    public synchronized void delete(int key) {
+        checkOpen();
+        memtable.put(key, SortedRun.TOMBSTONE);
+        if (memtable.isFull()) flush();
+    }
+
+    /**
+     * Searches for a key in the memtable and then in the runs from newest to oldest.
+     * @param key The key to search for.
+     * @return True if the newest entry for the key is not a tombstone.
+     */
+    public synchronized boolean search(int key) {
+        int state = memtable.get(key);
+        if (state != SortedRun.ABSENT) return state == SortedRun.LIVE;
+        for (List<SortedRun> level : levels) {
+            for (SortedRun run : level) {
+                state = run.get(key);
+                if (state != SortedRun.ABSENT) return state == SortedRun.LIVE;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes the memtable out as a new run on level 0 and schedules compaction if needed.
+     * @throws IllegalStateException If the tree has been closed.
+     */
+    public synchronized void flush() {
+        checkOpen();
+        if (memtable.size() == 0) return;
+        SortedRun run = memtable.toRun();
+        memtable.clear();
+        if (levels.isEmpty()) levels.add(new ArrayList<>());
+        levels.get(0).add(0, run);
+        flushCount++;
+
+        if (levels.get(0).size() >= fanout) {
+            if (compactor == null) {
+                compact();
+            } else if (!compactionScheduled) {
+                // Checked under the same lock in which compact() gives up, so a run added after
+                // its last check always finds either a running compaction or schedules a new one
+                pendingCompaction = compactor.submit(this::compact);
+                compactionScheduled = true; // Only once submitted, so a rejected submit leaves it retryable
+            }
+        }
+    }
+
+    /**
+     * Waits until background compaction has caught up.
+     */
+    public void awaitCompaction() {
+        Future<?> waited = null;
+        while (true) {
+            Future<?> pending;
+            synchronized (this) {
+                pending = pendingCompaction;
+            }
+            if (pending == null || pending == waited) return; // No compaction was scheduled meanwhile
+            try {
+                pending.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Compaction failed", e.getCause());
+            }
+            waited = pending;
+        }
+    }
+
+    /**
+     * Stops the background compaction thread after pending work is finished.
+     * The tree stays readable, but later writes and flushes throw IllegalStateException,
+     * since no compaction could run for them.
+     */
+    public void close() {
+        synchronized (this) {
+            closed = true; // No flush can schedule a compaction after this
+        }
+        awaitCompaction();
+        if (compactor != null) compactor.shutdown();
+    }
+
+    private void checkOpen() {
+        if (closed) throw new IllegalStateException("LSM tree is closed");
+    }
+
+    /**
+     * Runs compaction, and lets a later flush schedule it again if it fails.
+     */
+    private void compact() {
+        try {
+            compactLevels();
+        } catch (RuntimeException | Error e) {
+            synchronized (this) {
+                compactionScheduled = false; // Let the next flush try again
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Merges levels that have reached the fanout until no level is over the limit.
+     * The merge itself runs without holding the lock, so writers and readers are
+     * only blocked while the merged run is installed.
+     */
+    private void compactLevels() {
+        while (true) {
+            int level;
+            List<SortedRun> inputs;
+            boolean dropTombstones;
+            synchronized (this) {
+                level = -1;
+                for (int i = 0; i < levels.size(); i++) {
+                    if (levels.get(i).size() >= fanout) {
+                        level = i;
+                        break;
+                    }
+                }
+                if (level == -1) {
+                    compactionScheduled = false;
+                    return;
+                }
+                inputs = new ArrayList<>(levels.get(level));
+                // Tombstones are only needed while older data exists below the output run
+                dropTombstones = true;
+                for (int i = level + 1; i < levels.size(); i++) {
+                    if (!levels.get(i).isEmpty()) dropTombstones = false;
+                }
+            }
+
+            SortedRun merged = SortedRun.merge(inputs, dropTombstones);
+
+            synchronized (this) {
+                levels.get(level).removeAll(inputs);
+                if (levels.size() == level + 1) levels.add(new ArrayList<>());
+                if (merged.size() > 0) levels.get(level + 1).add(0, merged);
+                compactionCount++;
+            }
+        }
+    }
+
+    /**
+     * Gets the total number of runs across all levels.
+     * @return Number of sorted runs.
+     */
+    public synchronized int getRunCount() {
+        int count = 0;
+        for (List<SortedRun> level : levels) count += level.size();
+        return count;
+    }
+
+    public synchronized int getLevelCount() {
+        return levels.size();
+    }
+
+    public synchronized long getFlushCount() {
+        return flushCount;
+    }
+
+    public synchronized long getCompactionCount() {
+        return compactionCount;
+    }
+
+    public int getMemtableCapacity() {
+        return memtableCapacity;
+    }
+
+    /**
+     * In-memory write buffer: an open-addressing hash table from key to its latest state.
+     * It is sorted only once, when it is flushed to a run.
+     */
+    private static class MemTable {
+        private final int[] keys;
+        private final byte[] states; // ABSENT marks an empty slot
+        private final int mask;
+        private final int limit;
+        private int size;
+
+        /**
+         * Constructor to create a memtable holding up to the given number of keys.
+         * @param limit Maximum number of distinct keys before the memtable is full.
+         */
+        MemTable(int limit) {
+            int capacity = Integer.highestOneBit(Math.max(2, limit * 2 - 1)) << 1; // Load factor <= 0.5
+            this.keys = new int[capacity];
+            this.states = new byte[capacity];
+            this.mask = capacity - 1;
+            this.limit = limit;
+        }
+
+        void put(int key, int state) {
+            int slot = findSlot(key);
+            if (states[slot] == SortedRun.ABSENT) {
+                keys[slot] = key;
+                size++;
+            }
+            states[slot] = (byte) state;
+        }
+
+        int get(int key) {
+            return states[findSlot(key)];
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean isFull() {
+            return size >= limit;
+        }
+
+        void clear() {
+            Arrays.fill(states, (byte) SortedRun.ABSENT);
+            size = 0;
+        }
+
+        /**
+         * Sorts the buffered entries into an immutable run.
+         * @return Run holding the latest state of every buffered key.
+         */
+        SortedRun toRun() {
+            // Pack key and state into one long so a single primitive sort orders both
+            long[] packed = new long[size];
+            int count = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (states[i] != SortedRun.ABSENT) packed[count++] = ((long) keys[i] << 32) | states[i];
+            }
+            Arrays.sort(packed);
+            int[] runKeys = new int[size];
+            boolean[] deleted = new boolean[size];
+            for (int i = 0; i < size; i++) {
+                runKeys[i] = (int) (packed[i] >> 32);
+                deleted[i] = (int) (packed[i] & 0xFF) == SortedRun.TOMBSTONE;
+            }
+            return new SortedRun(runKeys, deleted);
+        }
+
+        private int findSlot(int key) {
+            int h = key * 0x9E3779B9;
+            int slot = (h ^ (h >>> 16)) & mask;
+            while (states[slot] != SortedRun.ABSENT && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.database.indexing;
+
+import java.util.Arrays;
+
+/**
+ * Read-only learned index over a frozen set of int keys.
+ * The sorted keys are covered by piecewise linear segments (PGM-style) built with a
+ * shrinking-cone pass, so that every key's predicted position is within
+ * {@code epsilon} of its true position. A lookup finds the segment, evaluates the
+ * linear model and then binary-searches only a window of 2 * epsilon + 3 keys.
+ */
+public class LearnedIndex {
+    private final int[] keys;        // Distinct keys in ascending order
+    private final int epsilon;       // Maximum prediction error in positions
+    private final int[] segmentKeys; // First key of each segment
+    private final int[] segmentStarts; // Position of each segment's first key
+    private final double[] slopes;   // Positions per key unit for each segment
+    private final int segmentCount;
+
+    /**
+     * Constructor to build a learned index from the keys currently in a B-Tree.
+     * Duplicate keys in the tree are indexed once.
+     * @param tree The tree to freeze.
+     * @param epsilon Maximum prediction error in positions.
+     */
+    public LearnedIndex(BTree tree, int epsilon) {
+        this(collectKeys(tree), epsilon);
+    }
+
+    /**
+     * Constructor to build a learned index over sorted keys.
+     * @param sortedKeys Keys in ascending order; duplicates are removed.
+     * @param epsilon Maximum prediction error in positions.
+     */
+    public LearnedIndex(int[] sortedKeys, int epsilon) {
+        if (epsilon < 1) throw new IllegalArgumentException("Epsilon must be positive");
+        this.keys = distinct(sortedKeys);
+        this.epsilon = epsilon;
+
+        int[] segKeys = new int[Math.max(1, keys.length)];
+        int[] segStarts = new int[segKeys.length];
+        double[] segSlopes = new double[segKeys.length];
+        int count = 0;
+
+        int start = 0;
+        while (start < keys.length) {
+            // Shrinking cone: keep the range of slopes that fit every point so far within epsilon
+            double low = 0;
+            double high = Double.POSITIVE_INFINITY;
+            int end = start + 1;
+            while (end < keys.length) {
+                double dx = (double) keys[end] - keys[start];
+                double dy = end - start;
+                double newLow = Math.max(low, (dy - epsilon) / dx);
+                double newHigh = Math.min(high, (dy + epsilon) / dx);
+                if (newLow > newHigh) break;
+                low = newLow;
+                high = newHigh;
+                end++;
+            }
+            segKeys[count] = keys[start];
+            segStarts[count] = start;
+            segSlopes[count] = end - start == 1 ? 0 : (low + high) / 2;
+            count++;
+            start = end;
+        }
+
+        this.segmentKeys = Arrays.copyOf(segKeys, count);
+        this.segmentStarts = Arrays.copyOf(segStarts, count);
+        this.slopes = Arrays.copyOf(segSlopes, count);
+        this.segmentCount = count;
+    }
+
+    /**
+     * Checks whether a key is in the index.
+     * @param key The key to look up.
+     * @return True if the key is present, false otherwise.
+     */
+    public boolean contains(int key) {
+        int pos = lowerBound(key);
+        return pos < keys.length && keys[pos] == key;
+    }
+
+    /**
+     * Finds the position of the first key that is greater than or equal to the given key.
+     * @param key The key to look up.
+     * @return Position in [0, size()], equal to size() if all keys are smaller.
+     */
+    public int lowerBound(int key) {
+        if (keys.length == 0 || key <= keys[0]) return 0;
+
+        // Last segment whose first key is <= key
+        int seg = Arrays.binarySearch(segmentKeys, key);
+        if (seg < 0) seg = -seg - 2;
+        int segStart = segmentStarts[seg];
+        int segEnd = seg + 1 < segmentCount ? segmentStarts[seg + 1] : keys.length;
+
+        // Predict, then search the error window inside the segment
+        long predicted = segStart + (long) (slopes[seg] * ((double) key - segmentKeys[seg]));
+        int lo = (int) Math.max(segStart, Math.min(segEnd, predicted - epsilon - 1));
+        int hi = (int) Math.max(segStart, Math.min(segEnd, predicted + epsilon + 2));
+        if ((lo > segStart && keys[lo - 1] >= key) || (hi < segEnd && keys[hi] < key)) {
+            // The answer is outside the window; only reachable through rounding at the edges
+            lo = segStart;
+            hi = segEnd;
+        }
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Collects the keys in an inclusive range.
+     * @param low Lower bound (inclusive).
+     * @param high Upper bound (inclusive).
+     * @return Keys in [low, high] in ascending order.
+     */
+    public int[] range(int low, int high) {
+        if (low > high) return new int[0];
+        int from = lowerBound(low);
+        int to = high == Integer.MAX_VALUE ? keys.length : lowerBound(high + 1);
+        return Arrays.copyOfRange(keys, from, to);
+    }
+
+    /**
+     * Counts the keys in an inclusive range without copying them.
+     * @param low Lower bound (inclusive).
+     * @param high Upper bound (inclusive).
+     * @return Number of keys in [low, high].
+     */
+    public int countRange(int low, int high) {
+        if (low > high) return 0;
+        int to = high == Integer.MAX_VALUE ? keys.length : lowerBound(high + 1);
+        return to - lowerBound(low);
+    }
+
+    /**
+     * Gets the key at a position.
+     * @param index Position in [0, size()).
+     * @return The key at that position.
+     */
+    public int getKey(int index) {
+        return keys[index];
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    public int getEpsilon() {
+        return epsilon;
+    }
+
+    public int getSegmentCount() {
+        return segmentCount;
+    }
+
+    /**
+     * Gets the memory used by the model alone (segment keys, starts and slopes).
+     * @return Model size in bytes.
+     */
+    public long getModelMemoryBytes() {
+        return (long) segmentCount * (Integer.BYTES + Integer.BYTES + Double.BYTES);
+    }
+
+    /**
+     * Gets the memory used by the model plus the sorted key array.
+     * @return Total size in bytes.
+     */
+    public long getMemoryBytes() {
+        return getModelMemoryBytes() + (long) keys.length * Integer.BYTES;
+    }
+
+    /**
+     * Reads all keys of a B-Tree in sorted order.
+     * @param tree The tree to read.
+     * @return Sorted keys, possibly with duplicates.
+     */
+    private static int[] collectKeys(BTree tree) {
+        if (tree.root == null) return new int[0];
+        int[] collected = new int[tree.root.countNodes()]; // countNodes() counts keys
+        int[] count = {0};
+        tree.root.forEachKey(key -> collected[count[0]++] = key);
+        return collected;
+    }
+
+    /**
+     * Removes duplicates from a sorted array.
+     * @param sorted Keys in ascending order.
+     * @return Distinct keys in ascending order.
+     */
+    private static int[] distinct(int[] sorted) {
+        int count = 0;
+        int[] result = new int[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            if (i > 0 && sorted[i] < sorted[i - 1]) throw new IllegalArgumentException("Keys must be sorted");
+            if (count == 0 || result[count - 1] != sorted[i]) result[count++] = sorted[i];
+        }
+        return count == sorted.length ? result : Arrays.copyOf(result, count);
+    }
+}
@@ -0,0 +1,206 @@
+package com.database.indexing;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-capacity cache of point-lookup results keyed by int.
+ * Keys are located through an open-addressing hash table with linear probing,
+ * and entries are evicted with the CLOCK (second-chance) policy.
+ * Both hits and misses of the underlying index are cached.
+ */
+public class LookupCache {
+    public static final int NOT_CACHED = -1; // Key has no cached result
+    public static final int ABSENT = 0;      // Cached result: key is not in the index
+    public static final int PRESENT = 1;     // Cached result: key is in the index
+
+    private final int capacity;
+    private final int[] table;         // Hash slots holding entry index + 1 (0 = empty)
+    private final int mask;
+    private final int[] entryKeys;     // Key of each entry
+    private final boolean[] entryFound; // Cached lookup result of each entry
+    private final boolean[] referenced; // CLOCK reference bit of each entry
+    private int size;                  // Number of entries in use
+    private int hand;                  // CLOCK hand position over the entries
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Constructor to create a cache holding up to the given number of keys.
+     * @param capacity Maximum number of cached keys.
+     */
+    public LookupCache(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be positive");
+        this.capacity = capacity;
+        int tableSize = Integer.highestOneBit(Math.max(2, capacity * 2 - 1)) << 1; // Load factor <= 0.5
+        this.table = new int[tableSize];
+        this.mask = tableSize - 1;
+        this.entryKeys = new int[capacity];
+        this.entryFound = new boolean[capacity];
+        this.referenced = new boolean[capacity];
+    }
+
+    /**
+     * Looks up the cached result for a key.
+     * @param key The key to look up.
+     * @return PRESENT or ABSENT if the result is cached, NOT_CACHED otherwise.
+     */
+    public int get(int key) {
+        int slot = findSlot(key);
+        if (table[slot] == 0) {
+            misses++;
+            return NOT_CACHED;
+        }
+        int entry = table[slot] - 1;
+        referenced[entry] = true;
+        hits++;
+        return entryFound[entry] ? PRESENT : ABSENT;
+    }
+
+    /**
+     * Stores the lookup result for a key, evicting another key if the cache is full.
+     * @param key The key that was looked up.
+     * @param found True if the key is in the index.
+     */
+    public void put(int key, boolean found) {
+        int slot = findSlot(key);
+        if (table[slot] != 0) {
+            int entry = table[slot] - 1;
+            entryFound[entry] = found;
+            referenced[entry] = true;
+            return;
+        }
+        int entry;
+        if (size < capacity) {
+            entry = size++;
+        } else {
+            entry = evict();
+            slot = findSlot(key); // Eviction may have shifted slots
+        }
+        entryKeys[entry] = key;
+        entryFound[entry] = found;
+        referenced[entry] = false; // New keys must be hit again to survive one sweep
+        table[slot] = entry + 1;
+    }
+
+    /**
+     * Drops the cached result for a key, e.g. after the key was inserted or deleted.
+     * @param key The key to invalidate.
+     */
+    public void invalidate(int key) {
+        int slot = findSlot(key);
+        if (table[slot] == 0) return;
+        int entry = table[slot] - 1;
+        removeSlot(slot);
+
+        // Move the last entry into the freed position to keep entries dense
+        int last = --size;
+        if (entry != last) {
+            int lastSlot = findSlot(entryKeys[last]);
+            table[lastSlot] = entry + 1;
+            entryKeys[entry] = entryKeys[last];
+            entryFound[entry] = entryFound[last];
+            referenced[entry] = referenced[last];
+        }
+        if (hand >= size) hand = 0;
+    }
+
+    /**
+     * Removes all cached results; statistics are kept.
+     */
+    public void clear() {
+        Arrays.fill(table, 0);
+        size = 0;
+        hand = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getHitCount() {
+        return hits;
+    }
+
+    public long getMissCount() {
+        return misses;
+    }
+
+    public long getEvictionCount() {
+        return evictions;
+    }
+
+    /**
+     * Computes the fraction of lookups served from the cache.
+     * @return Hit rate between 0 and 1.
+     */
+    public double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    /**
+     * Advances the CLOCK hand until an entry without its reference bit is found,
+     * clearing reference bits on the way, and removes that entry from the hash table.
+     * @return Index of the freed entry.
+     */
+    private int evict() {
+        while (referenced[hand]) {
+            referenced[hand] = false;
+            hand = (hand + 1) % capacity;
+        }
+        int victim = hand;
+        hand = (hand + 1) % capacity;
+        removeSlot(findSlot(entryKeys[victim]));
+        evictions++;
+        return victim;
+    }
+
+    /**
+     * Finds the slot holding a key, or the empty slot where it would be inserted.
+     * @param key The key to locate.
+     * @return Slot index in the hash table.
+     */
+    private int findSlot(int key) {
+        int slot = hash(key) & mask;
+        while (table[slot] != 0 && entryKeys[table[slot] - 1] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Empties a hash slot and shifts later entries of the probe run back,
+     * so lookups never need tombstones.
+     * @param slot The slot to empty.
+     */
+    private void removeSlot(int slot) {
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (table[next] != 0) {
+            int home = hash(entryKeys[table[next] - 1]) & mask;
+            // Move the entry if its home slot is not cyclically within (hole, next]
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                table[hole] = table[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        table[hole] = 0;
+    }
+
+    /**
+     * Scrambles a key so that sequential keys spread over the table.
+     * @param key The key to hash.
+     * @return Hash code of the key.
+     */
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
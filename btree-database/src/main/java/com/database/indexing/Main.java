@@ -1,14 +1,30 @@
 package com.database.indexing;
 
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.Scanner;
 
 /**
  * Main class to demonstrate the B-Tree functionality.
+ * Run with {@code --server <port>} to serve the tree over the network instead, and add
+ * {@code --calibrate} to pick the tree's degree by measuring this host first.
  */
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         Scanner scanner = new Scanner(System.in);
-        BTree bTree = new BTree(3);
+        int degree = 3;
+        if (args.length > 0 && args[args.length - 1].equals("--calibrate")) {
+            degree = calibrate();
+            args = Arrays.copyOf(args, args.length - 1);
+        }
+        BTree bTree = new BTree(degree);
+
+        if (args.length == 2 && args[0].equals("--server")) {
+            IndexServer server = new IndexServer(bTree, Integer.parseInt(args[1]));
+            server.start();
+            System.out.println("Index server listening on port " + server.getPort());
+            return;
+        }
 
         while (true) {
             System.out.println("\n1. Insert\n2. Search\n3. Traverse\n4. Delete\n5. Exit");
@@ -32,10 +48,34 @@ public class Main {
                     System.out.println();
                     break;
                 case 4:
+                    System.out.print("Enter key to delete: ");
+                    int deleteKey = scanner.nextInt();
+                    if (!bTree.delete(deleteKey)) System.out.println("Key " + deleteKey + " not found in the tree.");
+                    break;
+                case 5:
                     System.exit(0);
                 default:
                     System.out.println("Invalid option, try again.");
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Measures the candidate degrees for this host's caches and prints the results.
+     * @return The degree with the lowest cost for an even mix of reads and writes.
+     */
+    private static int calibrate() {
+        DegreeTuner tuner = new DegreeTuner();
+        System.out.println("Calibrating for cache line " + tuner.getLineSize() + " B, L1 "
+                + tuner.getL1Size() / 1024 + " KB, L2 " + tuner.getL2Size() / 1024 + " KB...");
+        DegreeTuner.Calibration calibration = tuner.calibrate(tuner.suggestedTreeSize(), 200000);
+        int[] degrees = calibration.getDegrees();
+        for (int i = 0; i < degrees.length; i++) {
+            System.out.printf("Degree %d: %.1f ns/lookup, %.1f ns/insert\n",
+                    degrees[i], calibration.getReadNanos(i), calibration.getWriteNanos(i));
+        }
+        int best = calibration.getBestDegree(0.5);
+        System.out.println("Using degree " + best);
+        return best;
+    }
+}
@@ -0,0 +1,70 @@
+package com.database.indexing;
+
+import java.util.Arrays;
+
+/**
+ * Free list of B-Tree nodes for one tree.
+ * Nodes dropped by merges and root collapses are kept here and handed out again
+ * by splits and root growth, so a tree only allocates when its node count grows.
+ * The pool holds at most a fixed number of nodes; extra nodes are left to the GC.
+ */
+class NodePool {
+    private final int degree;
+    private final BTreeNode[] free;
+    private int size;
+
+    /**
+     * Constructor to create an empty pool.
+     * @param degree Minimum degree of the nodes.
+     * @param capacity Maximum number of idle nodes kept; 0 disables pooling.
+     */
+    NodePool(int degree, int capacity) {
+        this.degree = degree;
+        this.free = new BTreeNode[capacity];
+    }
+
+    /**
+     * Takes an empty node from the pool, or creates one if the pool is empty.
+     * @param isLeaf Whether the node will be a leaf.
+     * @return A node with no keys.
+     */
+    BTreeNode acquire(boolean isLeaf) {
+        if (size == 0) {
+            BTreeNode node = new BTreeNode(degree, isLeaf);
+            node.pool = this;
+            return node;
+        }
+        BTreeNode node = free[--size];
+        free[size] = null;
+        node.isLeaf = isLeaf;
+        return node;
+    }
+
+    /**
+     * Returns a node that is no longer referenced by the tree.
+     * @param node The node to recycle.
+     */
+    void release(BTreeNode node) {
+        if (size == free.length) return;
+        node.numKeys = 0;
+        Arrays.fill(node.children, null); // Do not keep detached subtrees alive
+        free[size++] = node;
+    }
+
+    /**
+     * Creates nodes up front until the pool holds the given number (bounded by its capacity).
+     * @param count Desired number of idle nodes.
+     */
+    void reserve(int count) {
+        int target = Math.min(count, free.length);
+        while (size < target) {
+            BTreeNode node = new BTreeNode(degree, true);
+            node.pool = this;
+            free[size++] = node;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+}
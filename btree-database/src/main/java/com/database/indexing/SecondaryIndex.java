@@ -0,0 +1,125 @@
+package com.database.indexing;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Secondary index on one table column.
+ * A B-Tree maps each distinct column value to a posting list holding the
+ * row keys of all rows with that value, so equal values do not need
+ * duplicate tree entries and a single row can be removed exactly.
+ */
+class SecondaryIndex {
+    private final BTree tree;      // Column value -> posting list id
+    private int[][] postings;      // Row keys per posting list
+    private int[] postingSizes;
+    private int[] freeIds;         // Posting list ids released by removals
+    private int freeCount;
+    private int nextId;
+
+    /**
+     * Constructor to create an empty secondary index.
+     * @param degree Minimum degree of the underlying B-Tree.
+     */
+    SecondaryIndex(int degree) {
+        this.tree = new BTree(degree);
+        this.postings = new int[16][];
+        this.postingSizes = new int[16];
+        this.freeIds = new int[16];
+    }
+
+    /**
+     * Adds a row to the posting list of a column value.
+     * @param value Column value of the row.
+     * @param rowKey Primary key of the row.
+     */
+    void add(int value, int rowKey) {
+        int id = tree.get(value, -1);
+        if (id == -1) {
+            id = allocateId();
+            tree.insert(value, id);
+        }
+        if (postingSizes[id] == postings[id].length) {
+            postings[id] = Arrays.copyOf(postings[id], postings[id].length * 2);
+        }
+        postings[id][postingSizes[id]++] = rowKey;
+    }
+
+    /**
+     * Removes a row from the posting list of a column value.
+     * The value is dropped from the tree once no row holds it.
+     * @param value Column value of the row.
+     * @param rowKey Primary key of the row.
+     */
+    void remove(int value, int rowKey) {
+        int id = tree.get(value, -1);
+        if (id == -1) return;
+        int[] list = postings[id];
+        int size = postingSizes[id];
+        for (int i = 0; i < size; i++) {
+            if (list[i] == rowKey) {
+                list[i] = list[--size]; // Posting lists are unordered
+                break;
+            }
+        }
+        postingSizes[id] = size;
+        if (size == 0) {
+            tree.delete(value);
+            postings[id] = null;
+            if (freeCount == freeIds.length) freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+            freeIds[freeCount++] = id;
+        }
+    }
+
+    /**
+     * Counts rows whose column value is in [low, high] using only the index.
+     * @param low Lower bound (inclusive).
+     * @param high Upper bound (inclusive).
+     * @return Number of matching rows.
+     */
+    int count(int low, int high) {
+        int[] count = {0};
+        tree.forEachInRange(low, high, (value, id) -> count[0] += postingSizes[id]);
+        return count[0];
+    }
+
+    /**
+     * Sums column values in [low, high] using only the index.
+     * @param low Lower bound (inclusive).
+     * @param high Upper bound (inclusive).
+     * @return Sum of the matching column values.
+     */
+    long sum(int low, int high) {
+        long[] sum = {0};
+        tree.forEachInRange(low, high, (value, id) -> sum[0] += (long) value * postingSizes[id]);
+        return sum[0];
+    }
+
+    /**
+     * Visits the row keys of all rows whose column value is in [low, high].
+     * @param low Lower bound (inclusive).
+     * @param high Upper bound (inclusive).
+     * @param action Callback invoked once per matching row key.
+     */
+    void forEachRowKey(int low, int high, IntConsumer action) {
+        tree.forEachInRange(low, high, (value, id) -> {
+            for (int i = 0; i < postingSizes[id]; i++) action.accept(postings[id][i]);
+        });
+    }
+
+    private int allocateId() {
+        int id;
+        if (freeCount > 0) {
+            id = freeIds[--freeCount];
+        } else {
+            id = nextId++;
+            if (id == postings.length) {
+                postings = Arrays.copyOf(postings, id * 2);
+                postingSizes = Arrays.copyOf(postingSizes, id * 2);
+            }
+        }
+        postings[id] = new int[4];
+        postingSizes[id] = 0;
+        return id;
+    }
+}
@@ -0,0 +1,457 @@
+package com.database.indexing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Key space partitioned over independent B-Tree shards.
+ * With HASH partitioning keys are spread by a hash of the key, which balances point
+ * workloads; with RANGE partitioning each shard owns a contiguous key interval, so a
+ * range scan only touches the shards it overlaps and shards concatenate in key order.
+ *
+ * Every shard has a single writer thread fed by a bounded queue. insert() and delete()
+ * only enqueue and return; the writer applies queued operations in batches under the
+ * shard's write lock, and flush() waits until everything queued so far is applied.
+ * Reads take the shard's read lock, so they never wait on writes to other shards.
+ */
+public class ShardedBTree {
+    /**
+     * How keys are assigned to shards.
+     */
+    public enum Partitioning {
+        HASH,
+        RANGE
+    }
+
+    private static final int QUEUE_CAPACITY = 4096;
+    private static final int MAX_BATCH = 256;
+
+    private static final byte INSERT = 0;
+    private static final byte DELETE = 1;
+    private static final byte BARRIER = 2;
+    private static final byte STOP = 3;
+
+    private final Partitioning partitioning;
+    private final int degree;
+    private final Shard[] shards;
+    private volatile int[] splitPoints; // RANGE only: shard i owns [splitPoints[i - 1], splitPoints[i])
+
+    /**
+     * Queued write operation.
+     */
+    private static final class Op {
+        final byte type;
+        final int key;
+        final int value;
+        final CountDownLatch barrier;
+
+        Op(byte type, int key, int value, CountDownLatch barrier) {
+            this.type = type;
+            this.key = key;
+            this.value = value;
+            this.barrier = barrier;
+        }
+    }
+
+    /**
+     * One partition: a tree, its lock, its write queue and the thread draining it.
+     */
+    private static final class Shard {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        final BlockingQueue<Op> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        final Thread writer;
+        BTree tree; // Guarded by lock
+        volatile Throwable failure; // First error of the writer, after which it only discards
+
+        Shard(BTree tree, int index) {
+            this.tree = tree;
+            this.writer = new Thread(this::drain, "shard-writer-" + index);
+            writer.setDaemon(true);
+        }
+
+        /**
+         * Writer loop: takes whatever is queued (up to MAX_BATCH) and applies it under one lock hold.
+         * If applying fails, the error is kept for enqueue(), flush() and close() to rethrow,
+         * and the writer keeps releasing barriers until it is stopped so no caller waits forever.
+         */
+        private void drain() {
+            List<Op> batch = new ArrayList<>(MAX_BATCH);
+            try {
+                while (true) {
+                    batch.add(queue.take());
+                    queue.drainTo(batch, MAX_BATCH - 1);
+                    boolean stop = false;
+                    lock.writeLock().lock();
+                    try {
+                        for (Op op : batch) {
+                            if (op.type == INSERT) {
+                                tree.insert(op.key, op.value);
+                            } else if (op.type == DELETE) {
+                                tree.delete(op.key);
+                            } else if (op.type == STOP) {
+                                stop = true;
+                            }
+                        }
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+                    // Release barriers only after the operations before them are visible
+                    release(batch);
+                    if (stop) return;
+                }
+            } catch (Throwable t) {
+                failure = t;
+                release(batch);
+                discardUntilStop();
+            }
+        }
+
+        /**
+         * Drops queued operations after a failure, releasing their barriers, until STOP arrives.
+         * Consuming the queue also unblocks producers waiting for room in it.
+         */
+        private void discardUntilStop() {
+            try {
+                while (true) {
+                    Op op = queue.take();
+                    if (op.barrier != null) op.barrier.countDown();
+                    if (op.type == STOP) return;
+                }
+            } catch (InterruptedException e) {
+                for (Op op; (op = queue.poll()) != null; ) {
+                    if (op.barrier != null) op.barrier.countDown();
+                }
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private static void release(List<Op> batch) {
+            for (Op op : batch) {
+                if (op.barrier != null) op.barrier.countDown();
+            }
+            batch.clear();
+        }
+
+        /**
+         * Rethrows a failure of the writer thread.
+         * @throws IllegalStateException If the writer failed to apply an operation.
+         */
+        void checkFailure() {
+            Throwable t = failure;
+            if (t != null) throw new IllegalStateException("Shard writer failed", t);
+        }
+    }
+
+    /**
+     * Constructor to create a sharded tree and start its writer threads.
+     * RANGE shards start with equal slices of the int key space; call rebalance()
+     * once data is loaded to move the split points to the actual key distribution.
+     * @param shardCount Number of shards.
+     * @param degree Minimum degree of each shard's B-Tree.
+     * @param partitioning HASH or RANGE.
+     */
+    public ShardedBTree(int shardCount, int degree, Partitioning partitioning) {
+        if (shardCount < 1) throw new IllegalArgumentException("Shard count must be positive");
+        this.partitioning = partitioning;
+        this.degree = degree;
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) shards[i] = new Shard(new BTree(degree), i);
+
+        int[] splits = new int[shardCount - 1];
+        long width = (1L << 32) / shardCount;
+        for (int i = 0; i < splits.length; i++) splits[i] = (int) (Integer.MIN_VALUE + (i + 1) * width);
+        this.splitPoints = splits;
+
+        for (Shard shard : shards) shard.writer.start();
+    }
+
+    /**
+     * Queues an insertion. It becomes visible once the shard's writer applies it,
+     * at the latest when flush() returns.
+     * @param key The key to insert.
+     * @param value The value stored with the key.
+     * @throws IllegalStateException If the shard's writer has failed.
+     */
+    public void insert(int key, int value) {
+        enqueue(shards[shardFor(key)], new Op(INSERT, key, value, null));
+    }
+
+    /**
+     * Queues a deletion of one entry with the given key; missing keys are ignored.
+     * @param key The key to delete.
+     * @throws IllegalStateException If the shard's writer has failed.
+     */
+    public void delete(int key) {
+        enqueue(shards[shardFor(key)], new Op(DELETE, key, 0, null));
+    }
+
+    /**
+     * Waits until every operation queued before this call has been applied.
+     * @throws IllegalStateException If a shard's writer failed to apply an operation.
+     */
+    public void flush() {
+        CountDownLatch barrier = new CountDownLatch(shards.length);
+        for (Shard shard : shards) enqueue(shard, new Op(BARRIER, 0, 0, barrier));
+        try {
+            barrier.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while flushing", e);
+        }
+        for (Shard shard : shards) shard.checkFailure();
+    }
+
+    /**
+     * Searches for a key among applied writes.
+     * @param key The key to search for.
+     * @return True if the key is found.
+     */
+    public boolean search(int key) {
+        Shard shard = shards[shardFor(key)];
+        shard.lock.readLock().lock();
+        try {
+            return shard.tree.search(key);
+        } finally {
+            shard.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the value of a key among applied writes.
+     * @param key The key to look up.
+     * @param defaultValue Value returned when the key is absent.
+     * @return The stored value, or defaultValue.
+     */
+    public int get(int key, int defaultValue) {
+        Shard shard = shards[shardFor(key)];
+        shard.lock.readLock().lock();
+        try {
+            return shard.tree.get(key, defaultValue);
+        } finally {
+            shard.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Visits all entries with keys in [low, high] in ascending key order.
+     * RANGE shards are visited one after another; HASH shards are each scanned and
+     * their sorted results merged. Each shard is read under its own lock, so the
+     * result is consistent per shard but not a snapshot across shards.
+     * @param low Lower key bound (inclusive).
+     * @param high Upper key bound (inclusive).
+     * @param visitor Callback receiving each key and value.
+     */
+    public void forEachInRange(int low, int high, BTree.EntryVisitor visitor) {
+        if (low > high) return;
+        if (partitioning == Partitioning.RANGE) {
+            for (int i = shardFor(low); i <= shardFor(high); i++) {
+                Shard shard = shards[i];
+                shard.lock.readLock().lock();
+                try {
+                    shard.tree.forEachInRange(low, high, visitor);
+                } finally {
+                    shard.lock.readLock().unlock();
+                }
+            }
+            return;
+        }
+
+        // Collect each shard's sorted run, then k-way merge by repeatedly taking the smallest head
+        int[][] keys = new int[shards.length][];
+        int[][] values = new int[shards.length][];
+        for (int i = 0; i < shards.length; i++) {
+            int[][] run = collect(shards[i], low, high);
+            keys[i] = run[0];
+            values[i] = run[1];
+        }
+        int[] positions = new int[shards.length];
+        while (true) {
+            int best = -1;
+            for (int i = 0; i < shards.length; i++) {
+                if (positions[i] < keys[i].length
+                        && (best < 0 || keys[i][positions[i]] < keys[best][positions[best]])) best = i;
+            }
+            if (best < 0) break;
+            visitor.visit(keys[best][positions[best]], values[best][positions[best]]);
+            positions[best]++;
+        }
+    }
+
+    /**
+     * Counts the entries with keys in [low, high], touching only the shards that can hold them.
+     * @param low Lower key bound (inclusive).
+     * @param high Upper key bound (inclusive).
+     * @return Number of matching entries.
+     */
+    public int countRange(int low, int high) {
+        if (low > high) return 0;
+        int from = partitioning == Partitioning.RANGE ? shardFor(low) : 0;
+        int to = partitioning == Partitioning.RANGE ? shardFor(high) : shards.length - 1;
+        int count = 0;
+        for (int i = from; i <= to; i++) {
+            Shard shard = shards[i];
+            shard.lock.readLock().lock();
+            try {
+                count += shard.tree.countRange(low, high);
+            } finally {
+                shard.lock.readLock().unlock();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Moves the RANGE split points to quantiles of the stored keys so that every shard
+     * holds about the same number of entries, and rebuilds the shards accordingly.
+     * Must not run concurrently with other operations on this tree. Has no effect with
+     * HASH partitioning.
+     */
+    public void rebalance() {
+        if (partitioning != Partitioning.RANGE) return;
+        flush();
+
+        // Shards are ordered, so concatenating them yields all entries sorted by key
+        int total = size();
+        int[] keys = new int[total];
+        int[] values = new int[total];
+        int[] filled = new int[1];
+        for (Shard shard : shards) {
+            shard.tree.forEachInRange(Integer.MIN_VALUE, Integer.MAX_VALUE, (key, value) -> {
+                keys[filled[0]] = key;
+                values[filled[0]] = value;
+                filled[0]++;
+            });
+        }
+        if (total == 0) return;
+
+        int[] splits = new int[shards.length - 1];
+        for (int i = 0; i < splits.length; i++) splits[i] = keys[(int) ((long) (i + 1) * total / shards.length)];
+        splitPoints = splits;
+
+        int next = 0;
+        for (int i = 0; i < shards.length; i++) {
+            BTree tree = new BTree(degree);
+            int end = i < splits.length ? lowerBound(keys, splits[i]) : total;
+            for (; next < end; next++) tree.insert(keys[next], values[next]);
+            shards[i].lock.writeLock().lock();
+            shards[i].tree = tree;
+            shards[i].lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Stops the writer threads after applying everything queued.
+     * @throws IllegalStateException If a shard's writer failed to apply an operation.
+     */
+    public void close() {
+        try {
+            for (Shard shard : shards) shard.queue.put(new Op(STOP, 0, 0, null)); // Also stops a failed writer
+            for (Shard shard : shards) shard.writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        for (Shard shard : shards) shard.checkFailure();
+    }
+
+    /**
+     * Gets the number of entries across all shards.
+     * @return Total entry count.
+     */
+    public int size() {
+        int total = 0;
+        for (int i = 0; i < shards.length; i++) total += getShardSize(i);
+        return total;
+    }
+
+    /**
+     * Gets the number of entries in one shard.
+     * @param shard Shard index.
+     * @return Entry count of that shard.
+     */
+    public int getShardSize(int shard) {
+        Shard s = shards[shard];
+        s.lock.readLock().lock();
+        try {
+            return s.tree.countRange(Integer.MIN_VALUE, Integer.MAX_VALUE);
+        } finally {
+            s.lock.readLock().unlock();
+        }
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    public Partitioning getPartitioning() {
+        return partitioning;
+    }
+
+    /**
+     * Maps a key to its shard index.
+     */
+    private int shardFor(int key) {
+        if (partitioning == Partitioning.HASH) {
+            // Murmur3 finalizer so that sequential keys spread evenly
+            int h = key;
+            h ^= h >>> 16;
+            h *= 0x85ebca6b;
+            h ^= h >>> 13;
+            h *= 0xc2b2ae35;
+            h ^= h >>> 16;
+            return (int) (((h & 0xffffffffL) * shards.length) >>> 32);
+        }
+        // Number of split points <= key
+        int[] splits = splitPoints;
+        int low = 0;
+        int high = splits.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (splits[mid] <= key) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private static int lowerBound(int[] keys, int key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < key) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private static int[][] collect(Shard shard, int low, int high) {
+        shard.lock.readLock().lock();
+        try {
+            int n = shard.tree.countRange(low, high);
+            int[][] run = new int[2][n];
+            int[] filled = new int[1];
+            shard.tree.forEachInRange(low, high, (key, value) -> {
+                run[0][filled[0]] = key;
+                run[1][filled[0]] = value;
+                filled[0]++;
+            });
+            return run;
+        } finally {
+            shard.lock.readLock().unlock();
+        }
+    }
+
+    private static void enqueue(Shard shard, Op op) {
+        shard.checkFailure(); // Writes to a failed shard would be discarded
+        try {
+            shard.queue.put(op);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing a write", e);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.database.indexing;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable sorted run of an LSM tree.
+ * Keys are stored in a sorted int array with a parallel tombstone flag array,
+ * and a Bloom filter lets point lookups skip runs that cannot hold the key.
+ */
+class SortedRun {
+    static final int ABSENT = 0;    // Key does not appear in the run
+    static final int LIVE = 1;      // Key was inserted
+    static final int TOMBSTONE = 2; // Key was deleted
+
+    final int[] keys;        // Keys in ascending order, no duplicates
+    final boolean[] deleted; // True if the matching key is a tombstone
+    private final BloomFilter filter;
+
+    /**
+     * Constructor to build a run from sorted, de-duplicated keys.
+     * @param keys Keys in ascending order.
+     * @param deleted Tombstone flags aligned with keys.
+     */
+    SortedRun(int[] keys, boolean[] deleted) {
+        this.keys = keys;
+        this.deleted = deleted;
+        this.filter = new BloomFilter(keys.length, 0.01);
+        for (int key : keys) filter.add(key);
+    }
+
+    int size() {
+        return keys.length;
+    }
+
+    /**
+     * Looks up a key in the run.
+     * @param key The key to look up.
+     * @return LIVE, TOMBSTONE or ABSENT.
+     */
+    int get(int key) {
+        if (!filter.mightContain(key)) return ABSENT;
+        int lo = 0, hi = keys.length - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] < key) lo = mid + 1;
+            else if (keys[mid] > key) hi = mid - 1;
+            else return deleted[mid] ? TOMBSTONE : LIVE;
+        }
+        return ABSENT;
+    }
+
+    /**
+     * Merges runs into a single run. When a key appears in several runs,
+     * the entry from the newest run wins.
+     * @param runs Runs to merge, ordered from newest to oldest.
+     * @param dropTombstones True if no older data exists, so tombstones can be discarded.
+     * @return The merged run.
+     */
+    static SortedRun merge(List<SortedRun> runs, boolean dropTombstones) {
+        int total = 0;
+        for (SortedRun run : runs) total += run.size();
+        int[] keys = new int[total];
+        boolean[] deleted = new boolean[total];
+        int[] positions = new int[runs.size()];
+        int count = 0;
+
+        while (true) {
+            // Find the smallest current key; ties go to the newest run
+            int best = -1;
+            int bestKey = 0;
+            for (int r = 0; r < runs.size(); r++) {
+                SortedRun run = runs.get(r);
+                if (positions[r] < run.size()) {
+                    int key = run.keys[positions[r]];
+                    if (best == -1 || key < bestKey) {
+                        best = r;
+                        bestKey = key;
+                    }
+                }
+            }
+            if (best == -1) break;
+
+            boolean isTombstone = runs.get(best).deleted[positions[best]];
+            // Skip this key in every run, keeping only the newest version
+            for (int r = 0; r < runs.size(); r++) {
+                SortedRun run = runs.get(r);
+                if (positions[r] < run.size() && run.keys[positions[r]] == bestKey) positions[r]++;
+            }
+            if (isTombstone && dropTombstones) continue;
+            keys[count] = bestKey;
+            deleted[count] = isTombstone;
+            count++;
+        }
+
+        if (count < total) {
+            keys = Arrays.copyOf(keys, count);
+            deleted = Arrays.copyOf(deleted, count);
+        }
+        return new SortedRun(keys, deleted);
+    }
+}
@@ -0,0 +1,307 @@
+package com.database.indexing;
+
+import java.util.Arrays;
+
+/**
+ * Table of int columns stored column by column.
+ * Column 0 is the row key and is indexed by a primary B-Tree that maps it to the row's
+ * storage slot. Other columns can get secondary indexes, which are kept up to date by
+ * insert(), update() and delete(). Range queries are answered from an index alone when
+ * possible; otherwise a simple cost model picks between an index lookup and a full scan.
+ */
+public class Table {
+    // A row fetched through an index costs about this many sequentially scanned rows
+    private static final int RANDOM_ACCESS_COST = 4;
+
+    /**
+     * How a query reached its rows.
+     */
+    public enum AccessPath {
+        INDEX_ONLY,   // Answered from an index without reading rows
+        INDEX_LOOKUP, // Index range scan followed by row fetches
+        FULL_SCAN     // Every row was read
+    }
+
+    private final int degree;
+    private final String[] columnNames;
+    private int[][] columns;      // columns[c][slot]
+    private boolean[] live;       // True if the slot holds a row
+    private int slotCount;        // Slots ever used (high-water mark)
+    private int[] freeSlots;      // Slots released by delete()
+    private int freeCount;
+    private int rowCount;
+    private final BTree primary;  // Row key -> slot
+    private final SecondaryIndex[] indexes; // Null for unindexed columns
+    private final int[] minValues; // Per-column bounds used for selectivity estimates
+    private final int[] maxValues;
+    private AccessPath lastAccessPath;
+
+    /**
+     * Constructor to create an empty table.
+     * @param degree Minimum degree of the primary and secondary B-Trees.
+     * @param columnNames Column names; the first column is the row key.
+     */
+    public Table(int degree, String... columnNames) {
+        if (columnNames.length == 0) throw new IllegalArgumentException("A table needs at least one column");
+        this.degree = degree;
+        this.columnNames = columnNames.clone();
+        this.columns = new int[columnNames.length][16];
+        this.live = new boolean[16];
+        this.freeSlots = new int[16];
+        this.primary = new BTree(degree);
+        this.indexes = new SecondaryIndex[columnNames.length];
+        this.minValues = new int[columnNames.length];
+        this.maxValues = new int[columnNames.length];
+        Arrays.fill(minValues, Integer.MAX_VALUE);
+        Arrays.fill(maxValues, Integer.MIN_VALUE);
+    }
+
+    /**
+     * Creates a secondary index on a column and fills it from the existing rows.
+     * @param column Column name (not the row key, which is always indexed).
+     */
+    public void createIndex(String column) {
+        int c = columnIndex(column);
+        if (c == 0 || indexes[c] != null) return;
+        SecondaryIndex index = new SecondaryIndex(degree);
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (live[slot]) index.add(columns[c][slot], columns[0][slot]);
+        }
+        indexes[c] = index;
+    }
+
+    /**
+     * Inserts a row.
+     * @param row One value per column; row[0] is the row key.
+     * @throws IllegalArgumentException If the row has the wrong width or the key already exists.
+     */
+    public void insert(int... row) {
+        if (row.length != columnNames.length) {
+            throw new IllegalArgumentException("Expected " + columnNames.length + " values, got " + row.length);
+        }
+        if (primary.search(row[0])) throw new IllegalArgumentException("Duplicate row key " + row[0]);
+        int slot = allocateSlot();
+        for (int c = 0; c < row.length; c++) {
+            columns[c][slot] = row[c];
+            minValues[c] = Math.min(minValues[c], row[c]);
+            maxValues[c] = Math.max(maxValues[c], row[c]);
+            if (indexes[c] != null) indexes[c].add(row[c], row[0]);
+        }
+        live[slot] = true;
+        primary.insert(row[0], slot);
+        rowCount++;
+    }
+
+    /**
+     * Changes one column of a row.
+     * @param rowKey Key of the row.
+     * @param column Column to change (not the row key).
+     * @param value New value.
+     * @return True if the row exists, false otherwise.
+     */
+    public boolean update(int rowKey, String column, int value) {
+        int c = columnIndex(column);
+        if (c == 0) throw new IllegalArgumentException("The row key cannot be updated");
+        int slot = primary.get(rowKey, -1);
+        if (slot == -1) return false;
+        if (indexes[c] != null) {
+            indexes[c].remove(columns[c][slot], rowKey);
+            indexes[c].add(value, rowKey);
+        }
+        columns[c][slot] = value;
+        minValues[c] = Math.min(minValues[c], value);
+        maxValues[c] = Math.max(maxValues[c], value);
+        return true;
+    }
+
+    /**
+     * Deletes a row.
+     * @param rowKey Key of the row.
+     * @return True if the row existed, false otherwise.
+     */
+    public boolean delete(int rowKey) {
+        int slot = primary.get(rowKey, -1);
+        if (slot == -1) return false;
+        for (int c = 1; c < columnNames.length; c++) {
+            if (indexes[c] != null) indexes[c].remove(columns[c][slot], rowKey);
+        }
+        primary.delete(rowKey);
+        live[slot] = false;
+        if (freeCount == freeSlots.length) freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        freeSlots[freeCount++] = slot;
+        rowCount--;
+        return true;
+    }
+
+    /**
+     * Reads a full row.
+     * @param rowKey Key of the row.
+     * @return The row values, or null if the row does not exist.
+     */
+    public int[] getRow(int rowKey) {
+        int slot = primary.get(rowKey, -1);
+        if (slot == -1) return null;
+        int[] row = new int[columnNames.length];
+        for (int c = 0; c < row.length; c++) row[c] = columns[c][slot];
+        return row;
+    }
+
+    /**
+     * Reads one column of a row.
+     * @param rowKey Key of the row.
+     * @param column Column name.
+     * @param defaultValue Value returned if the row does not exist.
+     * @return The column value, or defaultValue.
+     */
+    public int get(int rowKey, String column, int defaultValue) {
+        int slot = primary.get(rowKey, -1);
+        return slot == -1 ? defaultValue : columns[columnIndex(column)][slot];
+    }
+
+    /**
+     * Counts rows whose column value is in [low, high].
+     * @param column Filter column.
+     * @param low Lower bound (inclusive).
+     * @param high Upper bound (inclusive).
+     * @return Number of matching rows.
+     */
+    public int count(String column, int low, int high) {
+        int c = columnIndex(column);
+        if (c == 0) {
+            lastAccessPath = AccessPath.INDEX_ONLY;
+            return primary.countRange(low, high);
+        }
+        if (indexes[c] != null) {
+            lastAccessPath = AccessPath.INDEX_ONLY;
+            return indexes[c].count(low, high);
+        }
+        lastAccessPath = AccessPath.FULL_SCAN;
+        int count = 0;
+        int[] values = columns[c];
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (live[slot] && values[slot] >= low && values[slot] <= high) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Finds the keys of all rows whose column value is in [low, high].
+     * @param column Filter column.
+     * @param low Lower bound (inclusive).
+     * @param high Upper bound (inclusive).
+     * @return Matching row keys in ascending order.
+     */
+    public int[] selectRowKeys(String column, int low, int high) {
+        int c = columnIndex(column);
+        IntList result = new IntList();
+        if (c == 0) {
+            lastAccessPath = AccessPath.INDEX_ONLY;
+            primary.forEachInRange(low, high, (key, slot) -> result.add(key));
+            return result.toArray();
+        }
+        if (indexes[c] != null) {
+            lastAccessPath = AccessPath.INDEX_ONLY;
+            indexes[c].forEachRowKey(low, high, result::add);
+        } else {
+            lastAccessPath = AccessPath.FULL_SCAN;
+            int[] values = columns[c];
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (live[slot] && values[slot] >= low && values[slot] <= high) result.add(columns[0][slot]);
+            }
+        }
+        int[] keys = result.toArray();
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    /**
+     * Sums a column over the rows whose filter column value is in [low, high].
+     * Uses an index-only scan when summing the indexed filter column itself; otherwise
+     * fetches rows through the filter index if the estimated number of matches is small
+     * enough, and scans the whole table if not.
+     * @param sumColumn Column to sum.
+     * @param filterColumn Column to filter on.
+     * @param low Lower bound (inclusive).
+     * @param high Upper bound (inclusive).
+     * @return Sum of sumColumn over matching rows.
+     */
+    public long sum(String sumColumn, String filterColumn, int low, int high) {
+        int s = columnIndex(sumColumn);
+        int f = columnIndex(filterColumn);
+        boolean indexed = f == 0 || indexes[f] != null;
+
+        if (indexed && s == f) {
+            lastAccessPath = AccessPath.INDEX_ONLY;
+            if (f != 0) return indexes[f].sum(low, high);
+            long[] sum = {0};
+            primary.forEachInRange(low, high, (key, slot) -> sum[0] += key);
+            return sum[0];
+        }
+
+        int[] sumValues = columns[s];
+        long[] sum = {0};
+        if (indexed && estimateRows(f, low, high) * RANDOM_ACCESS_COST < rowCount) {
+            lastAccessPath = AccessPath.INDEX_LOOKUP;
+            if (f == 0) {
+                primary.forEachInRange(low, high, (key, slot) -> sum[0] += sumValues[slot]);
+            } else {
+                indexes[f].forEachRowKey(low, high, rowKey -> sum[0] += sumValues[primary.get(rowKey, -1)]);
+            }
+            return sum[0];
+        }
+
+        lastAccessPath = AccessPath.FULL_SCAN;
+        int[] filterValues = columns[f];
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (live[slot] && filterValues[slot] >= low && filterValues[slot] <= high) sum[0] += sumValues[slot];
+        }
+        return sum[0];
+    }
+
+    /**
+     * Gets the access path chosen by the most recent count(), selectRowKeys() or sum().
+     * @return The last access path, or null if no query ran yet.
+     */
+    public AccessPath getLastAccessPath() {
+        return lastAccessPath;
+    }
+
+    public int size() {
+        return rowCount;
+    }
+
+    public boolean hasIndex(String column) {
+        int c = columnIndex(column);
+        return c == 0 || indexes[c] != null;
+    }
+
+    /**
+     * Estimates how many rows fall in [low, high], assuming values are spread
+     * uniformly between the smallest and largest value seen in the column.
+     */
+    private long estimateRows(int c, int low, int high) {
+        if (rowCount == 0) return 0;
+        long from = Math.max(low, minValues[c]);
+        long to = Math.min(high, maxValues[c]);
+        if (from > to) return 0;
+        double selectivity = (double) (to - from + 1) / ((long) maxValues[c] - minValues[c] + 1);
+        return (long) Math.ceil(selectivity * rowCount);
+    }
+
+    private int columnIndex(String column) {
+        for (int c = 0; c < columnNames.length; c++) {
+            if (columnNames[c].equals(column)) return c;
+        }
+        throw new IllegalArgumentException("Unknown column " + column);
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) return freeSlots[--freeCount];
+        if (slotCount == live.length) {
+            int capacity = slotCount * 2;
+            for (int c = 0; c < columns.length; c++) columns[c] = Arrays.copyOf(columns[c], capacity);
+            live = Arrays.copyOf(live, capacity);
+        }
+        return slotCount++;
+    }
+}
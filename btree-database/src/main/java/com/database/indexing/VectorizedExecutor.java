@@ -0,0 +1,227 @@
+package com.database.indexing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Batch-at-a-time executor for range aggregates over a B-Tree, i.e.
+ * {@code SELECT count(*), sum(v), min(v), max(v) WHERE k BETWEEN low AND high}.
+ * Entries are pulled from the tree in blocks copied straight out of the leaf arrays,
+ * then a filter operator and an aggregate operator run over each block as plain
+ * primitive loops. In parallel mode the key range is cut at separator keys from the
+ * upper levels of the tree and the pieces are aggregated on a thread pool.
+ * The tree must not be modified while a query runs.
+ */
+public class VectorizedExecutor {
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    private final BTree tree;
+    private final int batchSize;
+    private final int parallelism;
+    private final ExecutorService pool; // Null when parallelism is 1
+
+    /**
+     * Result of a range aggregate.
+     */
+    public static class Aggregate {
+        private long count;
+        private long sum;
+        private int min = Integer.MAX_VALUE;
+        private int max = Integer.MIN_VALUE;
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getSum() {
+            return sum;
+        }
+
+        /**
+         * Gets the smallest value; Integer.MAX_VALUE if no entry matched.
+         */
+        public int getMin() {
+            return min;
+        }
+
+        /**
+         * Gets the largest value; Integer.MIN_VALUE if no entry matched.
+         */
+        public int getMax() {
+            return max;
+        }
+
+        private void combine(Aggregate other) {
+            count += other.count;
+            sum += other.sum;
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+    }
+
+    /**
+     * Constructor to create a single-threaded executor with the default batch size.
+     * @param tree The tree to query.
+     */
+    public VectorizedExecutor(BTree tree) {
+        this(tree, DEFAULT_BATCH_SIZE, 1);
+    }
+
+    /**
+     * Constructor to create an executor.
+     * @param tree The tree to query.
+     * @param batchSize Number of entries pulled from the tree per batch.
+     * @param parallelism Number of threads used by aggregateParallel().
+     */
+    public VectorizedExecutor(BTree tree, int batchSize, int parallelism) {
+        if (batchSize < 1) throw new IllegalArgumentException("Batch size must be positive");
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be positive");
+        this.tree = tree;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.pool = parallelism == 1 ? null : Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "vectorized-executor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Aggregates the values of all entries with keys in [low, high] on the calling thread.
+     * @param low Lower key bound (inclusive).
+     * @param high Upper key bound (inclusive).
+     * @return Count, sum, min and max of the matching values.
+     */
+    public Aggregate aggregate(int low, int high) {
+        Aggregate result = new Aggregate();
+        if (low > high) return result;
+        int[] keys = new int[batchSize];
+        int[] values = new int[batchSize];
+        BTreeCursor cursor = new BTreeCursor(tree.root, low);
+        while (true) {
+            int size = cursor.next(keys, values, batchSize);
+            if (size == 0) break;
+            boolean last = keys[size - 1] > high; // Keys are sorted, so only the last batch needs filtering
+            if (last) size = filterRange(keys, values, size, low, high);
+            accumulate(values, size, result);
+            if (last) break;
+        }
+        return result;
+    }
+
+    /**
+     * Aggregates the values of all entries with keys in [low, high] using the thread pool.
+     * Falls back to aggregate() when the executor is single-threaded.
+     * @param low Lower key bound (inclusive).
+     * @param high Upper key bound (inclusive).
+     * @return Count, sum, min and max of the matching values.
+     */
+    public Aggregate aggregateParallel(int low, int high) {
+        if (pool == null || low > high) return aggregate(low, high);
+
+        // Cut [low, high] into sub-ranges at separator keys; each key falls into exactly one
+        int[] splits = collectSplitKeys(low, high, parallelism * 4);
+        List<Future<Aggregate>> parts = new ArrayList<>();
+        int from = low;
+        for (int split : splits) {
+            int partLow = from;
+            int partHigh = split - 1;
+            parts.add(pool.submit(() -> aggregate(partLow, partHigh)));
+            from = split;
+        }
+        int lastLow = from;
+        parts.add(pool.submit(() -> aggregate(lastLow, high)));
+
+        Aggregate result = new Aggregate();
+        try {
+            for (Future<Aggregate> part : parts) result.combine(part.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while aggregating", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Aggregation failed", e.getCause());
+        }
+        return result;
+    }
+
+    /**
+     * Stops the worker threads.
+     */
+    public void close() {
+        if (pool != null) pool.shutdown();
+    }
+
+    /**
+     * Filter operator: compacts the entries with keys in [low, high] to the front of the batch.
+     * @return Number of entries kept.
+     */
+    private static int filterRange(int[] keys, int[] values, int size, int low, int high) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            int key = keys[i];
+            if (key >= low && key <= high) {
+                keys[kept] = key;
+                values[kept] = values[i];
+                kept++;
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Aggregate operator: folds a batch of values into the running result.
+     */
+    private static void accumulate(int[] values, int size, Aggregate result) {
+        long sum = 0;
+        int min = result.min;
+        int max = result.max;
+        for (int i = 0; i < size; i++) {
+            int value = values[i];
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        result.count += size;
+        result.sum += sum;
+        result.min = min;
+        result.max = max;
+    }
+
+    /**
+     * Collects distinct separator keys strictly inside (low, high] from the upper levels of
+     * the tree, going one level deeper until there are enough of them or the leaves are reached.
+     * @param target Desired number of split keys.
+     * @return Ascending split keys.
+     */
+    private int[] collectSplitKeys(int low, int high, int target) {
+        int[] splits = new int[0];
+        for (int levels = 1; tree.root != null; levels++) {
+            IntList keys = new IntList();
+            boolean reachedLeaves = collectKeys(tree.root, levels, low, high, keys);
+            splits = keys.toArray();
+            if (splits.length >= target || reachedLeaves) break;
+        }
+        return splits;
+    }
+
+    /**
+     * In-order walk over the top levels of the tree, collecting keys in (low, high].
+     * @return True if the walk reached the leaves.
+     */
+    private boolean collectKeys(BTreeNode node, int levels, int low, int high, IntList out) {
+        boolean reachedLeaves = node.isLeaf;
+        boolean descend = !node.isLeaf && levels > 1;
+        for (int i = 0; i <= node.numKeys; i++) {
+            if (descend) reachedLeaves |= collectKeys(node.children[i], levels - 1, low, high, out);
+            if (i < node.numKeys) {
+                int key = node.keys[i];
+                if (key > low && key <= high && (out.size() == 0 || out.get(out.size() - 1) < key)) out.add(key);
+            }
+        }
+        return reachedLeaves;
+    }
+}
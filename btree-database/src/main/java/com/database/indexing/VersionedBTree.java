@@ -0,0 +1,462 @@
+package com.database.indexing;
+
+import java.util.Arrays;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Multi-version key/value index with time-travel reads.
+ * A B-Tree directory maps each key to the newest entry of its version chain; each
+ * entry carries a value and the half-open version interval [begin, end) in which it
+ * is visible. Every write commits at the next value of a monotonic version clock, so
+ * any past state can be read with the *AsOf methods or through a Snapshot.
+ *
+ * Writers are serialized by a StampedLock. Readers never acquire it: they read
+ * optimistically and retry if a write committed meanwhile (only after repeated
+ * failures do they fall back to the read lock). Range scans run in small chunks so
+ * a retry only repeats one chunk.
+ *
+ * Versions older than the oldest open snapshot are reclaimed by collectGarbage(),
+ * which can also run periodically on a background thread.
+ */
+public class VersionedBTree {
+    private static final long INFINITY = Long.MAX_VALUE; // End version of entries that are still current
+    private static final int OPTIMISTIC_ATTEMPTS = 8;
+    private static final int SCAN_CHUNK = 256;
+    private static final int GC_CHUNK = 512;
+
+    private final BTree directory;     // Key -> newest entry of its version chain
+    private final StampedLock lock = new StampedLock();
+
+    // Version chain entries, linked newest to oldest through next
+    private int[] values;
+    private long[] begins;
+    private long[] ends;
+    private int[] next;
+    private int freeHead = -1;         // Free entries are linked through next as well
+    private int allocated;             // Entries ever handed out (high-water mark)
+    private int versionCount;          // Entries currently in some chain
+
+    private volatile long clock;       // Version of the last committed write
+    private volatile long gcHorizon;   // Reads below this version may see reclaimed entries
+
+    private final TreeSet<Snapshot> snapshots = new TreeSet<>(); // Guarded by itself
+    private long nextSnapshotId;
+    private ScheduledExecutorService collector;
+
+    /**
+     * Read-only view of the index as of a fixed version. While a snapshot is open, the
+     * versions it can see are not garbage collected.
+     */
+    public class Snapshot implements Comparable<Snapshot> {
+        private final long version;
+        private final long id;
+
+        private Snapshot(long version, long id) {
+            this.version = version;
+            this.id = id;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public boolean search(int key) {
+            return searchAsOf(key, version);
+        }
+
+        public int get(int key, int defaultValue) {
+            return getAsOf(key, version, defaultValue);
+        }
+
+        public void forEachInRange(int low, int high, BTree.EntryVisitor visitor) {
+            forEachInRangeAsOf(low, high, version, visitor);
+        }
+
+        /**
+         * Releases the snapshot so its versions can be collected.
+         */
+        public void close() {
+            synchronized (snapshots) {
+                snapshots.remove(this);
+            }
+        }
+
+        @Override
+        public int compareTo(Snapshot other) {
+            if (version != other.version) return Long.compare(version, other.version);
+            return Long.compare(id, other.id);
+        }
+    }
+
+    /**
+     * Constructor to create an empty versioned index at version 0.
+     * @param degree Minimum degree of the directory B-Tree.
+     */
+    public VersionedBTree(int degree) {
+        this.directory = new BTree(degree);
+        this.values = new int[1024];
+        this.begins = new long[1024];
+        this.ends = new long[1024];
+        this.next = new int[1024];
+    }
+
+    /**
+     * Writes a value for a key, superseding its current value.
+     * @param key The key to write.
+     * @param value The new value.
+     * @return Version at which the write committed.
+     */
+    public long put(int key, int value) {
+        long stamp = lock.writeLock();
+        try {
+            long version = clock + 1;
+            int head = directory.get(key, -1);
+            int entry = allocate();
+            values[entry] = value;
+            begins[entry] = version;
+            ends[entry] = INFINITY;
+            next[entry] = head;
+            if (head == -1) {
+                directory.insert(key, entry);
+            } else {
+                if (ends[head] == INFINITY) ends[head] = version;
+                directory.update(key, entry);
+            }
+            clock = version;
+            return version;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Deletes a key by ending the visibility of its current value.
+     * @param key The key to delete.
+     * @return True if the key was present; no version is consumed otherwise.
+     */
+    public boolean delete(int key) {
+        long stamp = lock.writeLock();
+        try {
+            int head = directory.get(key, -1);
+            if (head == -1 || ends[head] != INFINITY) return false;
+            long version = clock + 1;
+            ends[head] = version;
+            clock = version;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Gets the version of the last committed write.
+     * @return Current version.
+     */
+    public long getVersion() {
+        return clock;
+    }
+
+    /**
+     * Searches for a key in the current version.
+     * @param key The key to search for.
+     * @return True if the key is present.
+     */
+    public boolean search(int key) {
+        return searchAsOf(key, clock);
+    }
+
+    /**
+     * Gets the current value of a key.
+     * @param key The key to look up.
+     * @param defaultValue Value returned when the key is absent.
+     * @return The value, or defaultValue.
+     */
+    public int get(int key, int defaultValue) {
+        return getAsOf(key, clock, defaultValue);
+    }
+
+    /**
+     * Searches for a key as of a past version.
+     * @param key The key to search for.
+     * @param version Version to read at.
+     * @return True if the key was present at that version.
+     */
+    public boolean searchAsOf(int key, long version) {
+        return findAsOf(key, version) != -1;
+    }
+
+    /**
+     * Gets the value of a key as of a past version.
+     * @param key The key to look up.
+     * @param version Version to read at.
+     * @param defaultValue Value returned when the key was absent.
+     * @return The value at that version, or defaultValue.
+     */
+    public int getAsOf(int key, long version, int defaultValue) {
+        long found = findAsOf(key, version);
+        return found == -1 ? defaultValue : (int) found;
+    }
+
+    /**
+     * Visits all entries with keys in [low, high] as they were at a past version, in key order.
+     * @param low Lower key bound (inclusive).
+     * @param high Upper key bound (inclusive).
+     * @param version Version to read at.
+     * @param visitor Callback receiving each key and value.
+     */
+    public void forEachInRangeAsOf(int low, int high, long version, BTree.EntryVisitor visitor) {
+        checkVersion(version);
+        if (low > high) return;
+        int[] keys = new int[SCAN_CHUNK];
+        int[] entries = new int[SCAN_CHUNK];
+        int[] outKeys = new int[SCAN_CHUNK];
+        int[] outValues = new int[SCAN_CHUNK];
+        int from = low;
+        while (true) {
+            int scanned = 0;
+            int emitted = 0;
+            for (int attempt = 0; ; attempt++) {
+                boolean locked = attempt >= OPTIMISTIC_ATTEMPTS;
+                long stamp = locked ? lock.readLock() : lock.tryOptimisticRead();
+                try {
+                    // Read one chunk of the directory and resolve each chain at the version
+                    scanned = new BTreeCursor(directory.root, from).next(keys, entries, SCAN_CHUNK);
+                    emitted = 0;
+                    for (int i = 0; i < scanned && keys[i] <= high; i++) {
+                        int entry = visibleEntry(entries[i], version);
+                        if (entry != -1) {
+                            outKeys[emitted] = keys[i];
+                            outValues[emitted++] = values[entry];
+                        }
+                    }
+                    if (locked || lock.validate(stamp)) break;
+                } catch (RuntimeException e) {
+                    if (locked) throw e; // Torn optimistic reads are retried, real errors are not
+                } finally {
+                    if (locked) lock.unlockRead(stamp);
+                }
+            }
+            checkVersion(version); // GC may have raised the horizon while reading
+            for (int i = 0; i < emitted; i++) visitor.visit(outKeys[i], outValues[i]);
+            if (scanned < SCAN_CHUNK || keys[scanned - 1] >= high) return;
+            from = keys[scanned - 1] + 1;
+        }
+    }
+
+    /**
+     * Visits all current entries with keys in [low, high] in key order.
+     * @param low Lower key bound (inclusive).
+     * @param high Upper key bound (inclusive).
+     * @param visitor Callback receiving each key and value.
+     */
+    public void forEachInRange(int low, int high, BTree.EntryVisitor visitor) {
+        forEachInRangeAsOf(low, high, clock, visitor);
+    }
+
+    /**
+     * Opens a snapshot of the current version.
+     * @return The snapshot; close it when done.
+     */
+    public Snapshot openSnapshot() {
+        synchronized (snapshots) {
+            Snapshot snapshot = new Snapshot(clock, nextSnapshotId++);
+            snapshots.add(snapshot);
+            return snapshot;
+        }
+    }
+
+    /**
+     * Opens a snapshot of a past version that has not been garbage collected.
+     * @param version Version to pin.
+     * @return The snapshot; close it when done.
+     */
+    public Snapshot openSnapshot(long version) {
+        synchronized (snapshots) {
+            if (version > clock) throw new IllegalArgumentException("Version " + version + " is in the future");
+            checkVersion(version);
+            Snapshot snapshot = new Snapshot(version, nextSnapshotId++);
+            snapshots.add(snapshot);
+            return snapshot;
+        }
+    }
+
+    /**
+     * Reclaims every version that no reader at or after the oldest open snapshot
+     * (or the current version, if none is open) can see. Works in chunks of keys and
+     * releases the write lock between chunks, so writers are only delayed briefly.
+     * @return Number of version entries reclaimed.
+     */
+    public int collectGarbage() {
+        long horizon;
+        synchronized (snapshots) {
+            horizon = snapshots.isEmpty() ? clock : snapshots.first().version;
+            if (horizon > gcHorizon) gcHorizon = horizon;
+        }
+
+        int reclaimed = 0;
+        int[] keys = new int[GC_CHUNK];
+        int[] entries = new int[GC_CHUNK];
+        int from = Integer.MIN_VALUE;
+        while (true) {
+            int scanned;
+            long stamp = lock.writeLock();
+            try {
+                scanned = new BTreeCursor(directory.root, from).next(keys, entries, GC_CHUNK);
+                for (int i = 0; i < scanned; i++) reclaimed += prune(keys[i], entries[i], horizon);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            if (scanned < GC_CHUNK || keys[scanned - 1] == Integer.MAX_VALUE) return reclaimed;
+            from = keys[scanned - 1] + 1;
+        }
+    }
+
+    /**
+     * Runs collectGarbage() periodically on a background thread.
+     * @param intervalMillis Time between collections.
+     */
+    public synchronized void startGarbageCollector(long intervalMillis) {
+        if (collector != null) return;
+        collector = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "version-gc");
+            thread.setDaemon(true);
+            return thread;
+        });
+        collector.scheduleWithFixedDelay(this::collectGarbage, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the background garbage collector, if running.
+     */
+    public synchronized void close() {
+        if (collector != null) {
+            collector.shutdown();
+            collector = null;
+        }
+    }
+
+    /**
+     * Gets the number of version entries currently kept, including superseded ones.
+     * @return Version entry count.
+     */
+    public int getVersionCount() {
+        long stamp = lock.readLock();
+        try {
+            return versionCount;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Gets the oldest version that can still be read reliably.
+     * @return Garbage collection horizon.
+     */
+    public long getGcHorizon() {
+        return gcHorizon;
+    }
+
+    /**
+     * Looks up the value of a key at a version, reading optimistically.
+     * @return The value widened to long, or -1 if the key was absent.
+     */
+    private long findAsOf(int key, long version) {
+        checkVersion(version);
+        for (int attempt = 0; ; attempt++) {
+            boolean locked = attempt >= OPTIMISTIC_ATTEMPTS;
+            long stamp = locked ? lock.readLock() : lock.tryOptimisticRead();
+            try {
+                int entry = visibleEntry(directory.get(key, -1), version);
+                long result = entry == -1 ? -1 : values[entry] & 0xffffffffL;
+                if (locked || lock.validate(stamp)) {
+                    checkVersion(version); // GC may have raised the horizon while reading
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                if (locked) throw e; // Torn optimistic reads are retried, real errors are not
+            } finally {
+                if (locked) lock.unlockRead(stamp);
+            }
+        }
+    }
+
+    /**
+     * Walks a version chain to the entry visible at a version.
+     * @param head Newest entry of the chain, or -1.
+     * @return The visible entry, or -1 if the key did not exist at that version.
+     */
+    private int visibleEntry(int head, long version) {
+        int steps = 0;
+        for (int entry = head; entry != -1; entry = next[entry]) {
+            if (begins[entry] <= version) return version < ends[entry] ? entry : -1;
+            // A chain longer than the storage can only be a torn optimistic read
+            if (++steps > allocated) throw new IllegalStateException("Inconsistent version chain");
+        }
+        return -1;
+    }
+
+    /**
+     * Frees the tail of a chain that no reader at or after the horizon can see.
+     * Entries are ordered newest first with decreasing end versions, so the
+     * unreachable entries form a suffix. Keys whose whole chain is unreachable
+     * are removed from the directory.
+     * @return Number of entries freed.
+     */
+    private int prune(int key, int head, long horizon) {
+        int previous = -1;
+        int entry = head;
+        while (entry != -1 && ends[entry] > horizon) {
+            previous = entry;
+            entry = next[entry];
+        }
+        if (entry == -1) return 0;
+        if (previous == -1) directory.delete(key);
+        else next[previous] = -1;
+
+        int freed = 0;
+        while (entry != -1) {
+            int following = next[entry];
+            next[entry] = freeHead;
+            freeHead = entry;
+            entry = following;
+            freed++;
+        }
+        versionCount -= freed;
+        return freed;
+    }
+
+    /**
+     * Takes an entry from the free list or the end of the storage arrays.
+     */
+    private int allocate() {
+        versionCount++;
+        if (freeHead != -1) {
+            int entry = freeHead;
+            freeHead = next[entry];
+            return entry;
+        }
+        if (allocated == values.length) {
+            int capacity = allocated * 2;
+            values = Arrays.copyOf(values, capacity);
+            begins = Arrays.copyOf(begins, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            next = Arrays.copyOf(next, capacity);
+        }
+        return allocated++;
+    }
+
+    /**
+     * Rejects versions whose entries may already be reclaimed. Open snapshots never
+     * fall below the horizon because it is computed from them.
+     */
+    private void checkVersion(long version) {
+        if (version < gcHorizon) {
+            throw new IllegalArgumentException("Version " + version + " is older than the garbage collection horizon "
+                    + gcHorizon);
+        }
+    }
+}
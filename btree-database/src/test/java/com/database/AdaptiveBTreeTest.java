@@ -0,0 +1,166 @@
+package com.database;
+import com.database.indexing.AdaptiveBTree;
+import com.database.indexing.DegreeTuner;
+import org.junit.jupiter.api.Test;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the AdaptiveBTree: degree switches driven by the workload mix,
+ * writes that race with a rebuild, and a before/after timing of a switch.
+ */
+public class AdaptiveBTreeTest {
+    private static final int SMALL_DEGREE = 4;
+    private static final int LARGE_DEGREE = 64;
+    private static final int WINDOW = 1000;
+
+    /**
+     * Calibration where the large degree is cheaper to read and the small degree is
+     * cheaper to write, so the best degree depends only on the mix.
+     */
+    private static DegreeTuner.Calibration calibration() {
+        return new DegreeTuner.Calibration(new int[]{SMALL_DEGREE, LARGE_DEGREE},
+                new double[]{100, 50}, new double[]{100, 300});
+    }
+
+    /**
+     * Tests that a read-heavy window moves the tree to the read-friendly degree, a
+     * write-heavy window moves it back, and no entry is lost on the way.
+     */
+    @Test
+    void testDegreeFollowsWorkload() {
+        AdaptiveBTree tree = new AdaptiveBTree(calibration(), SMALL_DEGREE, WINDOW);
+        for (int i = 0; i < 5000; i++) tree.insert(i, i * 3);
+        tree.awaitRebuild();
+        assertEquals(SMALL_DEGREE, tree.getDegree()); // Write-only windows keep the small degree
+
+        for (int i = 0; i < 3 * WINDOW; i++) assertTrue(tree.search(i % 5000));
+        tree.awaitRebuild();
+        assertEquals(LARGE_DEGREE, tree.getDegree());
+        assertEquals(0.0, tree.getWriteFraction(), 1e-9);
+        assertEquals(1, tree.getRebuildCount());
+
+        for (int i = 5000; i < 5000 + 3 * WINDOW; i++) tree.insert(i, i * 3);
+        tree.awaitRebuild();
+        assertEquals(SMALL_DEGREE, tree.getDegree());
+        assertEquals(2, tree.getRebuildCount());
+
+        // A balanced mix is within 10% of the cost of either degree, so nothing changes
+        for (int i = 0; i < 3 * WINDOW; i++) {
+            if (i % 2 == 0) tree.search(i);
+            else tree.insert(-1 - i, 0);
+        }
+        tree.awaitRebuild();
+        assertEquals(2, tree.getRebuildCount());
+
+        assertEquals(5000 + 3 * WINDOW + 3 * WINDOW / 2, tree.countRange(Integer.MIN_VALUE, Integer.MAX_VALUE));
+        for (int i = 0; i < 5000 + 3 * WINDOW; i++) assertEquals(i * 3, tree.get(i, -1));
+        tree.awaitRebuild(); // The lookups above are read-only windows again
+    }
+
+    /**
+     * Rebuilds repeatedly while another thread inserts and deletes, and checks that
+     * every write made during a rebuild reaches the new tree.
+     */
+    @Test
+    void testWritesDuringRebuildAreKept() throws InterruptedException {
+        AdaptiveBTree tree = new AdaptiveBTree(calibration(), SMALL_DEGREE, Integer.MAX_VALUE);
+        int keys = 50000;
+        for (int i = 0; i < keys; i++) tree.insert(i, i);
+
+        AtomicBoolean failed = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            for (int i = keys; i < 3 * keys; i++) tree.insert(i, i);
+            for (int i = 0; i < 3 * keys; i += 2) {
+                if (!tree.delete(i)) failed.set(true);
+            }
+        });
+        writer.start();
+        int rebuilds = 0;
+        while (writer.isAlive()) {
+            tree.rebuild(rebuilds % 2 == 0 ? LARGE_DEGREE : SMALL_DEGREE);
+            rebuilds++;
+        }
+        writer.join();
+
+        assertFalse(failed.get());
+        assertEquals(rebuilds, tree.getRebuildCount());
+        assertEquals(3 * keys / 2, tree.countRange(Integer.MIN_VALUE, Integer.MAX_VALUE));
+        for (int i = 0; i < 3 * keys; i++) assertEquals(i % 2 == 1, tree.search(i));
+    }
+
+    /**
+     * Times lookups on a tree of the small degree, lets a read-only workload switch it
+     * to the large degree in the background, and times the same lookups again.
+     */
+    @Test
+    void testAdaptiveRebuildPerformance() {
+        int treeSize = 500000;
+        int lookups = 500000;
+        AdaptiveBTree tree = new AdaptiveBTree(calibration(), SMALL_DEGREE, lookups);
+        Random random = new Random(3);
+        int[] keys = new int[treeSize];
+        for (int i = 0; i < treeSize; i++) {
+            keys[i] = random.nextInt(Integer.MAX_VALUE);
+            tree.insert(keys[i], i);
+        }
+        tree.awaitRebuild();
+        int[] probes = new int[lookups];
+        for (int i = 0; i < lookups; i++) probes[i] = keys[random.nextInt(treeSize)];
+
+        long startTime = System.nanoTime();
+        for (int probe : probes) assertTrue(tree.search(probe));
+        long beforeTime = System.nanoTime() - startTime;
+        startTime = System.nanoTime();
+        tree.awaitRebuild(); // The read-only window just triggered a switch
+        long rebuildWait = System.nanoTime() - startTime;
+        assertEquals(LARGE_DEGREE, tree.getDegree());
+
+        startTime = System.nanoTime();
+        for (int probe : probes) assertTrue(tree.search(probe));
+        long afterTime = System.nanoTime() - startTime;
+
+        System.out.printf("Adaptive | Keys: %d | Lookups: %d | Rebuild wait: %.4f ms\n",
+                treeSize, lookups, rebuildWait / 1e6);
+        System.out.printf("Degree %d | Lookup time: %.4f ms\n", SMALL_DEGREE, beforeTime / 1e6);
+        System.out.printf("Degree %d | Lookup time: %.4f ms\n", LARGE_DEGREE, afterTime / 1e6);
+        System.out.println("------------------------------------------------------");
+    }
+
+    /**
+     * Tests argument validation.
+     */
+    @Test
+    void testValidation() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveBTree(calibration(), SMALL_DEGREE, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new DegreeTuner.Calibration(new int[]{4}, new double[]{1, 2}, new double[]{1}));
+        assertThrows(IllegalArgumentException.class, () -> calibration().getCost(5, 0.5));
+        assertThrows(IllegalArgumentException.class,
+                () -> new AdaptiveBTree(calibration(), SMALL_DEGREE, WINDOW).rebuild(1));
+    }
+
+    /**
+     * Tests that a failed background rebuild is reported by awaitRebuild() and leaves the
+     * old tree serving reads and writes. The calibration favours an invalid degree for
+     * reads, so the rebuild started by a read-only window fails.
+     */
+    @Test
+    void testFailedRebuildIsReported() {
+        DegreeTuner.Calibration invalid = new DegreeTuner.Calibration(new int[]{1, SMALL_DEGREE},
+                new double[]{10, 100}, new double[]{1000, 100});
+        AdaptiveBTree tree = new AdaptiveBTree(invalid, SMALL_DEGREE, WINDOW);
+        for (int i = 0; i < WINDOW; i++) tree.insert(i, i);
+        tree.awaitRebuild();
+        for (int i = 0; i < WINDOW; i++) assertTrue(tree.search(i));
+
+        IllegalStateException failure = assertThrows(IllegalStateException.class, tree::awaitRebuild);
+        assertInstanceOf(IllegalArgumentException.class, failure.getCause());
+        tree.awaitRebuild(); // Reported once
+        assertEquals(SMALL_DEGREE, tree.getDegree());
+        assertEquals(0, tree.getRebuildCount());
+        tree.insert(WINDOW, 0);
+        assertEquals(WINDOW + 1, tree.countRange(Integer.MIN_VALUE, Integer.MAX_VALUE));
+    }
+}
@@ -0,0 +1,95 @@
+package com.database;
+import com.database.indexing.AdaptiveRadixTree;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the AdaptiveRadixTree implementation.
+ */
+public class AdaptiveRadixTreeTest {
+
+    /**
+     * Tests insertion and searching, including negative keys and duplicates.
+     */
+    @Test
+    void testInsertAndSearch() {
+        AdaptiveRadixTree tree = new AdaptiveRadixTree();
+        int[] keys = {10, 20, 5, -6, 12, Integer.MAX_VALUE, Integer.MIN_VALUE, 0, 256, 65536};
+        for (int key : keys) tree.insert(key);
+        tree.insert(10); // Duplicate is ignored
+        for (int key : keys) assertTrue(tree.search(key));
+        assertFalse(tree.search(11));
+        assertFalse(tree.search(-5));
+        assertEquals(keys.length, tree.size());
+    }
+
+    /**
+     * Tests that keys are visited in ascending signed order.
+     */
+    @Test
+    void testOrderedIteration() {
+        AdaptiveRadixTree tree = new AdaptiveRadixTree();
+        TreeSet<Integer> reference = new TreeSet<>();
+        Random random = new Random(3);
+        for (int i = 0; i < 10000; i++) {
+            int key = random.nextInt();
+            tree.insert(key);
+            reference.add(key);
+        }
+        List<Integer> visited = new ArrayList<>();
+        tree.forEachKey(visited::add);
+        assertEquals(new ArrayList<>(reference), visited);
+    }
+
+    /**
+     * Tests that dense keys make nodes grow to Node256 and shrink back after deletions.
+     */
+    @Test
+    void testGrowAndShrink() {
+        AdaptiveRadixTree tree = new AdaptiveRadixTree();
+        for (int i = 0; i < 1000; i++) tree.insert(i);
+        int nodesWhenFull = tree.getNodeCount();
+        for (int i = 0; i < 1000; i++) {
+            if (i % 100 != 0) tree.delete(i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i % 100 == 0, tree.search(i));
+        }
+        assertEquals(10, tree.size());
+        assertTrue(tree.getNodeCount() < nodesWhenFull);
+        for (int i = 0; i < 1000; i += 100) tree.delete(i);
+        assertEquals(0, tree.size());
+        assertEquals(0, tree.getNodeCount());
+    }
+
+    /**
+     * Tests random inserts and deletes against a TreeSet.
+     */
+    @Test
+    void testRandomOperationsMatchTreeSet() {
+        AdaptiveRadixTree tree = new AdaptiveRadixTree();
+        TreeSet<Integer> reference = new TreeSet<>();
+        Random random = new Random(5);
+        for (int i = 0; i < 100000; i++) {
+            // Mix of a dense range and sparse values to exercise prefixes and all node sizes
+            int key = random.nextBoolean() ? random.nextInt(4000) : random.nextInt() & 0xFFFF00FF;
+            if (random.nextInt(3) == 0) {
+                tree.delete(key);
+                reference.remove(key);
+            } else {
+                tree.insert(key);
+                reference.add(key);
+            }
+        }
+        assertEquals(reference.size(), tree.size());
+        for (int key : reference) assertTrue(tree.search(key));
+        for (int key = 0; key < 4000; key++) assertEquals(reference.contains(key), tree.search(key));
+        List<Integer> visited = new ArrayList<>();
+        tree.forEachKey(visited::add);
+        assertEquals(new ArrayList<>(reference), visited);
+    }
+}
@@ -0,0 +1,126 @@
+package com.database;
+import com.database.indexing.BTree;
+import org.junit.jupiter.api.Test;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Verifies with per-thread allocation counters that steady-state B-Tree operations
+ * allocate only the nodes the tree grows by once other nodes are recycled through the
+ * node pool.
+ */
+public class BTreeAllocationTest {
+    private static final int TREE_SIZE = 100000;
+    private static final int WARMUP_OPS = 300000;
+    private static final int MEASURED_OPS = 1000000;
+    private static final int POOL_CAPACITY = 4096;
+
+    /**
+     * Tests that pooled nodes are reused and the tree stays correct.
+     */
+    @Test
+    void testPoolRecyclesNodes() {
+        BTree bTree = new BTree(2, POOL_CAPACITY);
+        for (int i = 0; i < 1000; i++) bTree.insert(i, i);
+        int nodes = bTree.getNodeCount();
+        for (int i = 0; i < 1000; i++) bTree.delete(i);
+        assertEquals(0, bTree.countRange(Integer.MIN_VALUE, Integer.MAX_VALUE));
+        assertEquals(nodes, bTree.getPooledNodeCount()); // Every node went back to the pool
+
+        for (int i = 999; i >= 0; i--) bTree.insert(i, i * 2);
+        assertTrue(bTree.getPooledNodeCount() < nodes);
+        for (int i = 0; i < 1000; i++) assertEquals(i * 2, bTree.get(i, -1));
+        int[] keys = bTree.toArray();
+        for (int i = 0; i < keys.length; i++) assertEquals(i, keys[i]);
+        assertEquals(1000, bTree.searchAll(keys));
+
+        // A pool of capacity 0 never holds nodes
+        BTree unpooled = new BTree(2, 0);
+        for (int i = 0; i < 100; i++) unpooled.insert(i);
+        for (int i = 0; i < 100; i++) unpooled.delete(i);
+        assertEquals(0, unpooled.getPooledNodeCount());
+    }
+
+    /**
+     * Measures bytes allocated per steady-state delete/insert/search operation with and
+     * without pooling. Nothing is reserved ahead of time: churn still grows the tree by a
+     * few nodes as its fill factor settles, so the pooled tree may allocate exactly those
+     * new nodes and nothing else, while the unpooled tree allocates on every split.
+     */
+    @Test
+    void testSteadyStateAllocatesOnlyGrowth() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        for (int degree : new int[]{2, 16}) {
+            BTree pooledTree = new BTree(degree, POOL_CAPACITY);
+            long[] pooled = measure(threads, pooledTree);
+            long[] unpooled = measure(threads, new BTree(degree, 0));
+            int ops = MEASURED_OPS * 3;
+            System.out.printf("Allocation | Degree: %d | Operations: %d | Nodes created: %d\n", degree, ops, pooled[1]);
+            System.out.printf("Bytes/op   | Pooled: %.4f | Unpooled: %.4f\n",
+                    (double) pooled[0] / ops, (double) unpooled[0] / ops);
+            System.out.println("------------------------------------------------------");
+            assertTrue(pooled[1] < MEASURED_OPS / 100, "tree is not size-stable"); // Growth is rare
+            assertTrue(pooled[0] <= pooled[1] * maxNodeBytes(degree) + 1024,
+                    "pooled tree allocated more than its new nodes");
+            assertTrue(pooled[0] <= unpooled[0]);
+        }
+    }
+
+    /**
+     * Fills a tree, warms up, then runs delete/insert/search rounds on existing keys
+     * and reads the allocation counter of the current thread around them.
+     * @return Allocated bytes during the measured rounds, and the number of nodes the
+     * tree and its pool hold in addition to what they held before those rounds.
+     */
+    private long[] measure(com.sun.management.ThreadMXBean threads, BTree bTree) {
+        Random random = new Random(11);
+        int[] keys = new int[TREE_SIZE];
+        for (int i = 0; i < TREE_SIZE; i++) keys[i] = random.nextInt(Integer.MAX_VALUE);
+        bTree.insertAll(keys);
+
+        long thread = Thread.currentThread().getId();
+        runOperations(bTree, keys, WARMUP_OPS, 1);
+        int nodesBefore = bTree.getNodeCount() + bTree.getPooledNodeCount();
+        long before = threads.getThreadAllocatedBytes(thread);
+        int found = runOperations(bTree, keys, MEASURED_OPS, 2);
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+        int nodesAfter = bTree.getNodeCount() + bTree.getPooledNodeCount();
+        assertEquals(MEASURED_OPS, found);
+        return new long[]{allocated, Math.max(0, nodesAfter - nodesBefore)};
+    }
+
+    /**
+     * Upper bound on the heap size of a node: object header and fields plus the key,
+     * value and child arrays, assuming uncompressed 8-byte references.
+     */
+    private static long maxNodeBytes(int degree) {
+        return 48 + 3 * 16 + 2 * (2 * degree - 1) * Integer.BYTES + 2 * degree * 8L;
+    }
+
+    /**
+     * Deletes a key, inserts it back and searches another one, using an inline
+     * xorshift generator so the loop itself does not allocate.
+     * @return Number of successful searches.
+     */
+    private int runOperations(BTree bTree, int[] keys, int ops, int seed) {
+        int state = seed * 0x9E3779B9 | 1;
+        int found = 0;
+        for (int i = 0; i < ops; i++) {
+            state ^= state << 13;
+            state ^= state >>> 17;
+            state ^= state << 5;
+            int key = keys[(state >>> 1) % keys.length];
+            bTree.delete(key);
+            bTree.insert(key, i);
+            if (bTree.search(keys[i % keys.length])) found++;
+        }
+        return found;
+    }
+}
@@ -0,0 +1,172 @@
+package com.database;
+import com.database.indexing.BTree;
+import com.database.indexing.BTreeCompactor;
+import org.junit.jupiter.api.Test;
+import java.util.Arrays;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the BTreeCompactor and a before/after comparison of a fragmented tree.
+ */
+public class BTreeCompactorTest {
+    private static final int TREE_SIZE = 200000;
+    private static final int LOOKUPS = 200000;
+
+    /**
+     * Tests that a full pass raises the fill factor, shrinks the tree and keeps every
+     * key, and that the tree still supports deleting all keys afterwards.
+     */
+    @Test
+    void testCompactionRestoresFillFactor() {
+        for (int degree : new int[]{2, 3, 8, 32}) {
+            Random random = new Random(degree);
+            BTree bTree = new BTree(degree);
+            int[] keys = fragmentedTree(bTree, 20000, random);
+            double fillBefore = bTree.getFillFactor();
+            int nodesBefore = bTree.getNodeCount();
+            int heightBefore = bTree.getHeight();
+
+            BTreeCompactor compactor = new BTreeCompactor(bTree, 0.9);
+            double fragmentation = compactor.getFragmentation();
+            assertTrue(fragmentation > 0.2);
+            compactor.compact();
+            assertTrue(compactor.isDone());
+            assertFalse(compactor.step(1));
+
+            assertArrayEquals(keys, bTree.toArray());
+            assertTrue(bTree.getFillFactor() > fillBefore + 0.1, "degree " + degree);
+            assertEquals(nodesBefore - compactor.getFreedNodeCount(), bTree.getNodeCount());
+            assertTrue(bTree.getHeight() <= heightBefore);
+            assertTrue(compactor.getFragmentation() < fragmentation * 0.75);
+
+            // Deletes rely on the node size invariants, so deleting everything checks them
+            for (int key : keys) assertTrue(bTree.delete(key));
+            assertEquals(0, bTree.getDeleteMissCount());
+        }
+    }
+
+    /**
+     * Tests that the root collapses when its children fit into one node, and that
+     * invalid targets are rejected.
+     */
+    @Test
+    void testRootCollapseAndValidation() {
+        BTree bTree = new BTree(3);
+        for (int i = 0; i < 200; i++) bTree.insert(i, i);
+        for (int i = 0; i < 200; i++) if (i % 40 != 0) bTree.delete(i);
+        assertTrue(bTree.getHeight() > 0);
+
+        new BTreeCompactor(bTree, 1.0).compact();
+        assertEquals(0, bTree.getHeight()); // 5 keys fit into a single leaf of degree 3
+        assertEquals(1, bTree.getNodeCount());
+        for (int i = 0; i < 200; i += 40) assertEquals(i, bTree.get(i, -1));
+
+        // An empty tree and a single leaf need no work
+        assertFalse(new BTreeCompactor(bTree, 0.9).step(1));
+        assertFalse(new BTreeCompactor(new BTree(3), 0.9).step(1));
+
+        assertThrows(IllegalArgumentException.class, () -> new BTreeCompactor(bTree, 0.4));
+        assertThrows(IllegalArgumentException.class, () -> new BTreeCompactor(bTree, 1.5));
+    }
+
+    /**
+     * Runs compaction in small steps interleaved with inserts, deletes and lookups, and
+     * compares the contents with a sorted reference array throughout.
+     */
+    @Test
+    void testIncrementalCompactionUnderChurn() {
+        Random random = new Random(99);
+        BTree bTree = new BTree(4);
+        int[] keys = fragmentedTree(bTree, 30000, random);
+        int[] reference = Arrays.copyOf(keys, keys.length + 100000);
+        int size = keys.length;
+
+        BTreeCompactor compactor = new BTreeCompactor(bTree, 0.85);
+        int steps = 0;
+        while (compactor.step(4)) {
+            steps++;
+            for (int op = 0; op < 5; op++) {
+                if (random.nextBoolean() && size > 0) {
+                    int victim = random.nextInt(size);
+                    assertTrue(bTree.delete(reference[victim]));
+                    reference[victim] = reference[--size];
+                } else {
+                    int key = random.nextInt(1000000);
+                    bTree.insert(key, key);
+                    reference[size++] = key;
+                }
+                int probe = reference[random.nextInt(size)];
+                assertTrue(bTree.search(probe));
+            }
+        }
+        assertTrue(steps > 10); // The pass was really split into steps
+
+        int[] expected = Arrays.copyOf(reference, size);
+        Arrays.sort(expected);
+        assertArrayEquals(expected, bTree.toArray());
+        for (int key : expected) assertEquals(key, bTree.get(key, -1));
+    }
+
+    /**
+     * Compares node count, height, fill factor and lookup time of a fragmented tree
+     * before and after compaction.
+     */
+    @Test
+    void testCompactionPerformance() {
+        for (int degree : new int[]{4, 16}) {
+            Random random = new Random(1);
+            BTree bTree = new BTree(degree);
+            int[] keys = fragmentedTree(bTree, TREE_SIZE, random);
+            int[] probes = new int[LOOKUPS];
+            for (int i = 0; i < LOOKUPS; i++) probes[i] = keys[random.nextInt(keys.length)];
+
+            bTree.searchAll(probes); // Warm-up
+            long startTime = System.nanoTime();
+            int found = bTree.searchAll(probes);
+            long beforeTime = System.nanoTime() - startTime;
+            int nodesBefore = bTree.getNodeCount();
+            int heightBefore = bTree.getHeight();
+            double fillBefore = bTree.getFillFactor();
+
+            BTreeCompactor compactor = new BTreeCompactor(bTree, 0.9);
+            startTime = System.nanoTime();
+            compactor.compact();
+            long compactTime = System.nanoTime() - startTime;
+
+            startTime = System.nanoTime();
+            assertEquals(found, bTree.searchAll(probes));
+            long afterTime = System.nanoTime() - startTime;
+
+            System.out.printf("Compaction | Degree: %d | Keys: %d | Compaction time: %.4f ms\n",
+                    degree, keys.length, compactTime / 1e6);
+            System.out.printf("Before     | Nodes: %d | Height: %d | Fill: %.2f | Lookups: %.4f ms\n",
+                    nodesBefore, heightBefore, fillBefore, beforeTime / 1e6);
+            System.out.printf("After      | Nodes: %d | Height: %d | Fill: %.2f | Lookups: %.4f ms\n",
+                    bTree.getNodeCount(), bTree.getHeight(), bTree.getFillFactor(), afterTime / 1e6);
+            System.out.println("------------------------------------------------------");
+        }
+    }
+
+    /**
+     * Inserts random keys and then deletes 70% of them at random, leaving many
+     * nodes near the minimum size.
+     * @return The remaining keys in ascending order.
+     */
+    private int[] fragmentedTree(BTree bTree, int size, Random random) {
+        int[] keys = new int[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = random.nextInt(Integer.MAX_VALUE);
+            bTree.insert(keys[i], keys[i]);
+        }
+        int remaining = size;
+        for (int i = 0; i < size * 7 / 10; i++) {
+            int victim = random.nextInt(remaining);
+            assertTrue(bTree.delete(keys[victim]));
+            keys[victim] = keys[--remaining];
+        }
+        int[] left = Arrays.copyOf(keys, remaining);
+        Arrays.sort(left);
+        return left;
+    }
+}
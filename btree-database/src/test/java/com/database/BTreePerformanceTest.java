@@ -1,16 +1,18 @@
 package com.database;
 import com.database.indexing.BTree;
 import org.junit.jupiter.api.Test;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
 import java.util.Random;
 import java.util.TreeSet;
-import java.util.ArrayList;
-import java.util.Collections;
 
 public class BTreePerformanceTest {
     private static final int[] TEST_SIZES = {10000, 50000, 100000, 500000}; // Varied dataset sizes
     private static final int SEARCH_SIZE = 10000; // Number of search operations
     private static final int DELETE_SIZE = 5000; // Number of deletions to measure
     private static final int[] B_TREE_ORDERS = {2, 3, 4, 5}; // Varying B-Tree degrees
+    private static final int MISS_DELETE_SIZE = 1000000; // Deletes in the high-miss-rate workload
 
     /**
      * Runs performance tests with varied conditions.
@@ -26,6 +28,47 @@ public class BTreePerformanceTest {
         }
     }
 
+    /**
+     * Measures delete throughput when 90% of the keys are missing. The "printing" run
+     * reproduces the old behaviour of writing a message per miss to a synchronized
+     * PrintStream (discarding the output so the console is not flooded); the other runs
+     * use the miss counter alone and a counting listener.
+     */
+    @Test
+    void runDeleteMissPerformanceTests() {
+        PrintStream console = new PrintStream(OutputStream.nullOutputStream());
+        long[] listened = {0};
+        BTree.DeleteListener[] listeners = {
+                key -> console.println("Key " + key + " not found in the tree."),
+                null,
+                key -> listened[0]++
+        };
+        String[] names = {"Printing", "No listener", "Counting listener"};
+        for (int l = 0; l < listeners.length; l++) {
+            Random random = new Random(7);
+            BTree bTree = new BTree(16);
+            int[] keys = new int[MISS_DELETE_SIZE];
+            for (int i = 0; i < MISS_DELETE_SIZE; i++) {
+                keys[i] = random.nextInt(Integer.MAX_VALUE);
+                if (i % 10 == 0) bTree.insert(keys[i]); // Only every tenth deleted key exists
+            }
+            bTree.setDeleteListener(listeners[l]);
+
+            long startTime = System.nanoTime();
+            int deleted = 0;
+            for (int key : keys) {
+                if (bTree.delete(key)) deleted++;
+            }
+            long deleteTime = System.nanoTime() - startTime;
+
+            System.out.printf("Delete misses | %s | Deletes: %d | Found: %d | Misses: %d\n",
+                    names[l], MISS_DELETE_SIZE, deleted, bTree.getDeleteMissCount());
+            System.out.printf("B-Tree Deletion: %.4f ms | %.1f ns/delete\n",
+                    deleteTime / 1e6, (double) deleteTime / MISS_DELETE_SIZE);
+            System.out.println("---------------------------------------------");
+        }
+    }
+
     /**
      * Runs an experiment for a specific dataset size, B-Tree order, and data type.
      * @param dataSize Number of elements to insert.
@@ -35,9 +78,9 @@ public class BTreePerformanceTest {
     private void runExperiment(int dataSize, int order, String dataType) {
         BTree bTree = new BTree(order);
         TreeSet<Integer> bst = new TreeSet<>();
-        ArrayList<Integer> dataset = generateDataset(dataSize, dataType);
-        ArrayList<Integer> searchKeys = new ArrayList<>(dataset.subList(0, Math.min(SEARCH_SIZE, dataset.size())));
-        ArrayList<Integer> deleteKeys = new ArrayList<>(dataset.subList(0, Math.min(DELETE_SIZE, dataset.size())));
+        int[] dataset = generateDataset(dataSize, dataType);
+        int[] searchKeys = Arrays.copyOf(dataset, Math.min(SEARCH_SIZE, dataset.length));
+        int[] deleteKeys = Arrays.copyOf(dataset, Math.min(DELETE_SIZE, dataset.length));
 
         // Measure B-Tree Insertion Time
         long startTime = System.nanoTime();
@@ -70,8 +113,7 @@ public class BTreePerformanceTest {
         // Measure B-Tree Deletion Time
         startTime = System.nanoTime();
         for (int num : deleteKeys) {
-            // Assuming B-Tree has a delete function (implement if missing)
-            // bTree.delete(num);
+            bTree.delete(num);
         }
         long bTreeDeleteTime = System.nanoTime() - startTime;
 
@@ -99,18 +141,18 @@ public class BTreePerformanceTest {
      * @param type Type of dataset (Random, Sorted, Skewed).
      * @return Generated dataset.
      */
-    private ArrayList<Integer> generateDataset(int size, String type) {
+    private int[] generateDataset(int size, String type) {
         Random random = new Random();
-        ArrayList<Integer> dataset = new ArrayList<>();
+        int[] dataset = new int[size];
         for (int i = 0; i < size; i++) {
-            dataset.add(random.nextInt(Integer.MAX_VALUE));
+            dataset[i] = random.nextInt(Integer.MAX_VALUE);
         }
         if (type.equals("Sorted")) {
-            Collections.sort(dataset);
+            Arrays.sort(dataset);
         } else if (type.equals("Skewed")) {
-            Collections.sort(dataset);
+            Arrays.sort(dataset);
             for (int i = 0; i < size / 10; i++) {
-                dataset.set(random.nextInt(size), random.nextInt(Integer.MAX_VALUE));
+                dataset[random.nextInt(size)] = random.nextInt(Integer.MAX_VALUE);
             }
         }
         return dataset;
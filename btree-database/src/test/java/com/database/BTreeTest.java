@@ -102,4 +102,117 @@ public class BTreeTest {
         // Verify that an element beyond inserted values is not found
         assertFalse(bTree.search(105)); // Element 105 was never inserted
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests that a tree emptied by deleting every key accepts inserts again.
+     * Deleting the last key leaves the tree without a root node.
+     */
+    @Test
+    void testInsertAfterDeletingAllKeys() {
+        for (int i = 1; i <= 50; i++) bTree.insert(i, i);
+        for (int i = 1; i <= 50; i++) bTree.delete(i);
+        assertEquals(0, bTree.countRange(Integer.MIN_VALUE, Integer.MAX_VALUE));
+
+        bTree.insert(7, 70);
+        assertTrue(bTree.search(7));
+        assertEquals(70, bTree.get(7, -1));
+        for (int i = 100; i < 200; i++) bTree.insert(i, i);
+        assertEquals(101, bTree.countRange(Integer.MIN_VALUE, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Tests that delete reports whether the key existed and reports misses
+     * through the counter and the delete listener instead of printing.
+     */
+    @Test
+    void testDeleteReturnsStatus() {
+        for (int i = 1; i <= 50; i++) {
+            bTree.insert(i);
+        }
+        int[] lastMissing = {0};
+        bTree.setDeleteListener(key -> lastMissing[0] = key);
+
+        // Deleting existing keys succeeds and does not count as a miss
+        assertTrue(bTree.delete(10));
+        assertTrue(bTree.delete(50));
+        assertFalse(bTree.search(10));
+        assertEquals(0, bTree.getDeleteMissCount());
+
+        // Deleting missing keys fails, is counted and reaches the listener
+        assertFalse(bTree.delete(10));
+        assertFalse(bTree.delete(1000));
+        assertEquals(2, bTree.getDeleteMissCount());
+        assertEquals(1000, lastMissing[0]);
+
+        // Emptying the tree and deleting again is also just a miss
+        for (int i = 1; i <= 49; i++) {
+            if (i != 10) assertTrue(bTree.delete(i));
+        }
+        assertFalse(bTree.delete(1));
+        assertEquals(3, bTree.getDeleteMissCount());
+
+        // With a filter, misses are answered without descending the tree
+        bTree.insert(7);
+        bTree.insert(9); // Keeps the tree non-empty after 7 is deleted
+        bTree.enableFilter(100, 0.01);
+        assertFalse(bTree.delete(8));
+        assertTrue(bTree.delete(7));
+        assertEquals(4, bTree.getDeleteMissCount());
+
+        // A stale "maybe" for the deleted key is a false positive, like on search()
+        assertFalse(bTree.delete(7));
+        assertEquals(5, bTree.getDeleteMissCount());
+        assertEquals(1, bTree.getFilter().getFalsePositiveCount());
+        assertEquals(0.5, bTree.getFilter().getObservedFalsePositiveRate(), 1e-9); // delete(8) and delete(7)
+    }
+
+    /**
+     * Tests that put inserts absent keys and overwrites present ones without adding
+     * duplicates, including keys that become split medians, and that lookup tells a
+     * stored value of 0 or -1 apart from an absent key.
+     */
+    @Test
+    void testPutAndLookup() {
+        for (int i = 0; i < 1000; i++) assertFalse(bTree.put(i, i));
+        for (int i = 0; i < 1000; i += 3) assertTrue(bTree.put(i, -i));
+        assertEquals(1000, bTree.countRange(Integer.MIN_VALUE, Integer.MAX_VALUE));
+        for (int i = 0; i < 1000; i++) assertEquals(i % 3 == 0 ? -i : i, bTree.get(i, 1));
+
+        bTree.put(5000, 0);
+        bTree.put(5001, -1);
+        assertEquals(0L, bTree.lookup(5000));
+        assertEquals(0xffffffffL, bTree.lookup(5001));
+        assertEquals(-1L, bTree.lookup(5002));
+
+        for (int i = 0; i < 1000; i++) assertTrue(bTree.delete(i));
+        assertFalse(bTree.delete(0)); // No duplicate was left behind
+    }
+
+    /**
+     * Tests that bulk loading sorted entries builds a valid tree for many sizes,
+     * including tiny ones, and that the tree can then be modified normally.
+     */
+    @Test
+    void testBulkLoad() {
+        for (int degree : new int[]{2, 3, 16}) {
+            for (int size : new int[]{0, 1, 2, 5, 6, 31, 32, 1000, 20000}) {
+                int[] keys = new int[size];
+                int[] values = new int[size];
+                for (int i = 0; i < size; i++) {
+                    keys[i] = i * 2;
+                    values[i] = i;
+                }
+                BTree loaded = BTree.bulkLoad(degree, keys, values, size, 0.9);
+                assertArrayEquals(keys, loaded.toArray());
+                for (int i = 0; i < size; i++) assertEquals(i, loaded.get(i * 2, -1));
+                if (size > 1000) assertTrue(loaded.getFillFactor() > 0.75);
+
+                // Inserting in between and deleting everything checks the node size invariants
+                for (int i = 0; i < size; i++) loaded.insert(i * 2 + 1, i);
+                for (int i = 0; i < 2 * size; i++) assertTrue(loaded.delete(i), "degree " + degree + ", size " + size);
+                assertEquals(0, loaded.getDeleteMissCount());
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> BTree.bulkLoad(3, new int[0], new int[0], 0, 0.3));
+    }
+}
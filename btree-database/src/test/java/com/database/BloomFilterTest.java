@@ -0,0 +1,138 @@
+package com.database;
+import com.database.indexing.BTree;
+import com.database.indexing.BloomFilter;
+import org.junit.jupiter.api.Test;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the BloomFilter and its use in front of BTree.search().
+ */
+public class BloomFilterTest {
+    private static final int KEY_COUNT = 100000;
+
+    /**
+     * Tests that every added key is reported as possibly present.
+     */
+    @Test
+    void testNoFalseNegatives() {
+        BloomFilter filter = new BloomFilter(KEY_COUNT, 0.01);
+        for (int i = 0; i < KEY_COUNT; i++) {
+            filter.add(i * 7);
+        }
+        for (int i = 0; i < KEY_COUNT; i++) {
+            assertTrue(filter.mightContain(i * 7));
+        }
+    }
+
+    /**
+     * Tests that the false-positive rate stays close to the configured target.
+     */
+    @Test
+    void testFalsePositiveRate() {
+        BloomFilter filter = new BloomFilter(KEY_COUNT, 0.01);
+        for (int i = 0; i < KEY_COUNT; i++) {
+            filter.add(i * 2); // Even keys only
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < KEY_COUNT; i++) {
+            if (filter.mightContain(i * 2 + 1)) falsePositives++; // Odd keys are absent
+        }
+        double rate = (double) falsePositives / KEY_COUNT;
+        assertTrue(rate < 0.02, "False-positive rate too high: " + rate);
+        assertTrue(filter.getExpectedFalsePositiveRate() < 0.02);
+        assertTrue(filter.getMemoryBytes() < KEY_COUNT * 2L); // Roughly 10 bits per key
+    }
+
+    /**
+     * Tests that a filtered BTree answers searches exactly like an unfiltered one,
+     * including after deletions and automatic rebuilds.
+     */
+    @Test
+    void testFilteredTreeMatchesTree() {
+        BTree filtered = new BTree(3);
+        BTree plain = new BTree(3);
+        filtered.enableFilter(1000, 0.01);
+        Random random = new Random(42);
+        for (int i = 0; i < 5000; i++) {
+            int key = random.nextInt(20000);
+            if (!plain.search(key)) {
+                plain.insert(key);
+                filtered.insert(key);
+            }
+        }
+        for (int i = 0; i < 2000; i++) {
+            int key = random.nextInt(20000);
+            if (plain.search(key)) {
+                plain.delete(key);
+                filtered.delete(key);
+            }
+        }
+        for (int key = 0; key < 20000; key++) {
+            assertEquals(plain.search(key), filtered.search(key));
+        }
+        BloomFilter filter = filtered.getFilter();
+        assertNotNull(filter);
+        assertTrue(filter.getNegativeCount() > 0);
+        assertTrue(filter.getObservedFalsePositiveRate() < 0.1);
+    }
+
+    /**
+     * Tests that rebuilding the filter clears stale entries left by deletions.
+     */
+    @Test
+    void testRebuildDropsDeletedKeys() {
+        BTree bTree = new BTree(3);
+        for (int i = 0; i < 1000; i++) {
+            bTree.insert(i);
+        }
+        bTree.enableFilter(1000, 0.01);
+        for (int i = 0; i < 100; i++) {
+            bTree.delete(i);
+        }
+        assertEquals(100, bTree.getFilter().getStaleCount());
+        bTree.rebuildFilter();
+        assertEquals(0, bTree.getFilter().getStaleCount());
+        assertEquals(900, bTree.getFilter().getInsertedCount());
+        for (int i = 100; i < 1000; i++) {
+            assertTrue(bTree.search(i));
+        }
+        bTree.disableFilter();
+        assertNull(bTree.getFilter());
+        assertFalse(bTree.search(5));
+
+        // Without a filter a rebuild has nothing to do
+        bTree.rebuildFilter();
+        assertNull(bTree.getFilter());
+        new BTree(3).rebuildFilter();
+    }
+
+    /**
+     * Compares lookup time for absent keys with and without the filter.
+     */
+    @Test
+    void testNegativeLookupPerformance() {
+        BTree plain = new BTree(3);
+        BTree filtered = new BTree(3);
+        for (int i = 0; i < KEY_COUNT; i++) {
+            plain.insert(i * 2);
+            filtered.insert(i * 2);
+        }
+        filtered.enableFilter(KEY_COUNT, 0.01);
+
+        long startTime = System.nanoTime();
+        for (int i = 0; i < KEY_COUNT; i++) plain.search(i * 2 + 1);
+        long plainTime = System.nanoTime() - startTime;
+
+        startTime = System.nanoTime();
+        for (int i = 0; i < KEY_COUNT; i++) filtered.search(i * 2 + 1);
+        long filteredTime = System.nanoTime() - startTime;
+
+        BloomFilter filter = filtered.getFilter();
+        System.out.printf("Negative lookups (ms) | BTree: %.4f | BTree + Bloom: %.4f\n",
+                plainTime / 1e6, filteredTime / 1e6);
+        System.out.printf("Bloom filter | FPR observed: %.4f | expected: %.4f | memory: %d bytes\n",
+                filter.getObservedFalsePositiveRate(), filter.getExpectedFalsePositiveRate(),
+                filter.getMemoryBytes());
+    }
+}
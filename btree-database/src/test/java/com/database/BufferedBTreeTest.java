@@ -0,0 +1,118 @@
+package com.database;
+import com.database.indexing.BTree;
+import com.database.indexing.BufferedBTree;
+import org.junit.jupiter.api.Test;
+import java.util.Random;
+import java.util.TreeSet;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the BufferedBTree (B-epsilon tree) and a random-insert benchmark against BTree.
+ */
+public class BufferedBTreeTest {
+    private static final int[] TEST_SIZES = {100000, 500000};
+    private static final int[] B_TREE_ORDERS = {3, 16, 64};
+
+    /**
+     * Tests insertion and searching of sequential keys.
+     */
+    @Test
+    void testInsertionAndSearch() {
+        BufferedBTree tree = new BufferedBTree(3, 8);
+        for (int i = 1; i <= 1000; i++) {
+            tree.insert(i);
+        }
+        for (int i = 1; i <= 1000; i++) {
+            assertTrue(tree.search(i));
+        }
+        assertFalse(tree.search(0));
+        assertFalse(tree.search(1001));
+        assertTrue(tree.getHeight() > 0);
+        assertTrue(tree.getBufferedMessageCount() > 0); // Some updates are still in flight
+    }
+
+    /**
+     * Tests that buffered deletes hide keys that already reached the leaves.
+     */
+    @Test
+    void testDeleteAfterInsert() {
+        BufferedBTree tree = new BufferedBTree(2, 4);
+        for (int i = 0; i < 200; i++) {
+            tree.insert(i);
+        }
+        for (int i = 0; i < 200; i += 2) {
+            tree.delete(i);
+        }
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i % 2 == 1, tree.search(i));
+        }
+    }
+
+    /**
+     * Tests random inserts and deletes against a TreeSet for several degrees and buffer sizes.
+     */
+    @Test
+    void testRandomOperationsMatchTreeSet() {
+        int[][] configs = {{2, 1}, {2, 4}, {3, 16}, {8, 64}};
+        for (int[] config : configs) {
+            BufferedBTree tree = new BufferedBTree(config[0], config[1]);
+            TreeSet<Integer> reference = new TreeSet<>();
+            Random random = new Random(config[0] * 31 + config[1]);
+            for (int i = 0; i < 30000; i++) {
+                int key = random.nextInt(3000);
+                if (random.nextInt(3) == 0) {
+                    tree.delete(key);
+                    reference.remove(key);
+                } else {
+                    tree.insert(key);
+                    reference.add(key);
+                }
+            }
+            for (int key = 0; key < 3000; key++) {
+                assertEquals(reference.contains(key), tree.search(key),
+                        "Mismatch for key " + key + " with degree " + config[0] + ", buffer " + config[1]);
+            }
+        }
+    }
+
+    /**
+     * Compares random-insert and search time of BufferedBTree and BTree.
+     */
+    @Test
+    void testRandomInsertPerformance() {
+        for (int size : TEST_SIZES) {
+            Random random = new Random(size);
+            int[] dataset = new int[size];
+            for (int i = 0; i < size; i++) dataset[i] = random.nextInt(Integer.MAX_VALUE);
+
+            for (int order : B_TREE_ORDERS) {
+                BTree bTree = new BTree(order);
+                long startTime = System.nanoTime();
+                for (int key : dataset) bTree.insert(key);
+                long bTreeInsertTime = System.nanoTime() - startTime;
+
+                BufferedBTree buffered = new BufferedBTree(order);
+                startTime = System.nanoTime();
+                for (int key : dataset) buffered.insert(key);
+                long bufferedInsertTime = System.nanoTime() - startTime;
+
+                startTime = System.nanoTime();
+                for (int i = 0; i < 10000; i++) bTree.search(dataset[i]);
+                long bTreeSearchTime = System.nanoTime() - startTime;
+
+                startTime = System.nanoTime();
+                for (int i = 0; i < 10000; i++) buffered.search(dataset[i]);
+                long bufferedSearchTime = System.nanoTime() - startTime;
+
+                System.out.printf("Random inserts | Size: %d | Order: %d\n", size, order);
+                System.out.printf("Insertion (ms) | BTree: %.4f | Buffered: %.4f\n",
+                        bTreeInsertTime / 1e6, bufferedInsertTime / 1e6);
+                System.out.printf("Search (ms)    | BTree: %.4f | Buffered: %.4f\n",
+                        bTreeSearchTime / 1e6, bufferedSearchTime / 1e6);
+                System.out.printf("Nodes          | BTree: %d | Buffered: %d\n",
+                        bTree.getNodeCount(), buffered.getNodeCount());
+                System.out.println("------------------------------------------------------");
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.database;
+import com.database.indexing.DegreeTuner;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the DegreeTuner and a printout of a calibration on this host.
+ */
+public class DegreeTunerTest {
+    private static final int TREE_SIZE = 100000;
+    private static final int LOOKUPS = 100000;
+
+    /**
+     * Tests that candidate degrees fill whole cache lines and stop once a node
+     * outgrows half the L1 cache.
+     */
+    @Test
+    void testCandidateDegrees() {
+        DegreeTuner tuner = new DegreeTuner(64, 32 * 1024, 1024 * 1024);
+        assertArrayEquals(new int[]{8, 16, 32, 64, 128, 256, 512}, tuner.candidateDegrees());
+
+        // Larger lines start higher; a tiny L1 still yields one candidate
+        assertEquals(16, new DegreeTuner(128, 32 * 1024, 1024 * 1024).candidateDegrees()[0]);
+        assertArrayEquals(new int[]{2}, new DegreeTuner(64, 64, 1024).candidateDegrees());
+
+        // The host's caches are detected or defaulted, never zero
+        DegreeTuner host = new DegreeTuner();
+        assertTrue(host.getLineSize() > 0 && host.getL1Size() > 0 && host.getL2Size() > 0);
+    }
+
+    /**
+     * Tests that the best degree is the weighted minimum of read and write costs.
+     */
+    @Test
+    void testBestDegree() {
+        DegreeTuner.Calibration calibration = new DegreeTuner.Calibration(new int[]{8, 32, 128},
+                new double[]{90, 60, 70}, new double[]{50, 80, 200});
+        assertEquals(32, calibration.getBestDegree(0.0));
+        assertEquals(8, calibration.getBestDegree(1.0));
+        assertEquals(8, calibration.getBestDegree(0.5)); // 70 vs 70 vs 135: first wins ties
+        assertEquals(32, calibration.getBestDegree(0.2));
+        assertEquals(64.0, calibration.getCost(32, 0.2), 1e-9);
+    }
+
+    /**
+     * Calibrates the candidate degrees of this host and prints the measured costs.
+     */
+    @Test
+    void testCalibrationPerformance() {
+        DegreeTuner tuner = new DegreeTuner();
+        DegreeTuner.Calibration calibration = tuner.calibrate(TREE_SIZE, LOOKUPS);
+        int[] degrees = calibration.getDegrees();
+        assertArrayEquals(tuner.candidateDegrees(), degrees);
+
+        System.out.printf("Calibration | Line: %d B | L1: %d KB | L2: %d KB\n",
+                tuner.getLineSize(), tuner.getL1Size() / 1024, tuner.getL2Size() / 1024);
+        for (int i = 0; i < degrees.length; i++) {
+            assertTrue(calibration.getReadNanos(i) > 0 && calibration.getWriteNanos(i) > 0);
+            System.out.printf("Degree: %d | Lookup: %.1f ns | Insert: %.1f ns\n",
+                    degrees[i], calibration.getReadNanos(i), calibration.getWriteNanos(i));
+        }
+        System.out.printf("Best degree | Reads: %d | Mixed: %d | Writes: %d\n", calibration.getBestDegree(0.0),
+                calibration.getBestDegree(0.5), calibration.getBestDegree(1.0));
+        System.out.println("------------------------------------------------------");
+    }
+}
@@ -0,0 +1,302 @@
+package com.database;
+import com.database.indexing.BTree;
+import com.database.indexing.IndexClient;
+import com.database.indexing.IndexServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.EOFException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for IndexServer and IndexClient, plus a loopback load test with many connections.
+ */
+public class IndexServerTest {
+    // Each loopback connection takes two file descriptors, so the default stays well under
+    // a 1024 descriptor limit; raise it with -Dindex.server.connections=2000 for a bigger run
+    private static final int CONNECTIONS = Integer.getInteger("index.server.connections", 250);
+    private static final int CLIENT_THREADS = 4;
+    private static final int ROUNDS = 10;
+    private static final int PIPELINE_DEPTH = 4;
+    private static final int KEYS_PER_FRAME = 16;
+    private static final int KEY_SPACE = 100000;
+
+    private BTree bTree;
+    private IndexServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        bTree = new BTree(16);
+        server = new IndexServer(bTree, 0);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    /**
+     * Tests GET, PUT, DELETE and RANGE round trips against the served tree.
+     */
+    @Test
+    void testBasicOperations() throws Exception {
+        IndexClient client = new IndexClient("localhost", server.getPort());
+
+        IndexClient.Response put = client.put(new int[]{5, 1, 9, 3}, new int[]{50, 10, 90, 0});
+        assertTrue(put.isOk());
+        assertEquals(4, put.getCount());
+
+        IndexClient.Response get = client.get(1, 2, 3, 9);
+        assertArrayEquals(new boolean[]{true, false, true, true}, get.getFound());
+        assertEquals(10, get.getValues()[0]);
+        assertEquals(0, get.getValues()[2]); // Stored value 0 is still reported as found
+        assertEquals(90, get.getValues()[3]);
+
+        // PUT overwrites instead of adding a duplicate
+        client.put(new int[]{5}, new int[]{55});
+        assertEquals(55, client.get(5).getValues()[0]);
+        assertEquals(4, bTree.countRange(Integer.MIN_VALUE, Integer.MAX_VALUE));
+
+        IndexClient.Response range = client.range(2, 9, 10);
+        assertArrayEquals(new int[]{3, 5, 9}, range.getKeys());
+        assertArrayEquals(new int[]{0, 55, 90}, range.getValues());
+        assertArrayEquals(new int[]{1, 3}, client.range(Integer.MIN_VALUE, Integer.MAX_VALUE, 2).getKeys());
+        assertEquals(0, client.range(9, 2, 10).getCount());
+
+        IndexClient.Response delete = client.delete(3, 4, 5);
+        assertArrayEquals(new boolean[]{true, false, true}, delete.getFound());
+        assertFalse(bTree.search(3));
+        assertFalse(client.get(5).getFound()[0]);
+        client.close();
+    }
+
+    /**
+     * Tests that many pipelined frames of mixed types come back in order with correct contents.
+     */
+    @Test
+    void testPipelining() throws Exception {
+        IndexClient client = new IndexClient("localhost", server.getPort());
+        Random random = new Random(1);
+        int frames = 500;
+        int[] ids = new int[frames];
+        int[][] keys = new int[frames][];
+        for (int f = 0; f < frames; f++) {
+            keys[f] = new int[KEYS_PER_FRAME];
+            int[] values = new int[KEYS_PER_FRAME];
+            for (int i = 0; i < KEYS_PER_FRAME; i++) {
+                keys[f][i] = random.nextInt(1000);
+                values[i] = keys[f][i] * 2;
+            }
+            ids[f] = f % 2 == 0 ? client.sendPut(keys[f], values) : client.sendGet(keys[f - 1]);
+        }
+        client.flush();
+
+        for (int f = 0; f < frames; f++) {
+            IndexClient.Response response = client.receive();
+            assertEquals(ids[f], response.getRequestId());
+            assertEquals(KEYS_PER_FRAME, response.getCount());
+            if (f % 2 == 1) {
+                // Each GET follows the PUT of the same keys, so every key must be visible
+                for (int i = 0; i < KEYS_PER_FRAME; i++) {
+                    assertTrue(response.getFound()[i]);
+                    assertEquals(keys[f - 1][i] * 2, response.getValues()[i]);
+                }
+            }
+        }
+
+        // A large RANGE response spans many socket reads
+        IndexClient.Response range = client.range(0, 999, 100000);
+        assertEquals(bTree.countRange(0, 999), range.getCount());
+        for (int i = 1; i < range.getCount(); i++) assertTrue(range.getKeys()[i - 1] < range.getKeys()[i]);
+        // A narrow range with a huge limit stops at high rather than at the limit
+        IndexClient.Response narrow = client.range(100, 120, Integer.MAX_VALUE);
+        assertEquals(bTree.countRange(100, 120), narrow.getCount());
+        for (int key : narrow.getKeys()) assertTrue(key >= 100 && key <= 120);
+        client.close();
+    }
+
+    /**
+     * Tests that a RANGE over more entries than one frame can carry is cut to the most
+     * that fit, and that the client accepts the resulting maximum-size frame.
+     */
+    @Test
+    void testRangeAtFrameLimit() throws Exception {
+        int maxEntries = (16 * 1024 * 1024 - 6 - 4) / 8; // (MAX_FRAME - RESPONSE_HEADER - count) / entry
+        for (int i = 0; i < maxEntries + 1000; i++) bTree.insert(i, -i);
+
+        IndexClient client = new IndexClient("localhost", server.getPort());
+        IndexClient.Response range = client.range(Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE);
+        assertTrue(range.isOk());
+        assertEquals(maxEntries, range.getCount());
+        assertEquals(maxEntries - 1, range.getKeys()[maxEntries - 1]);
+        assertEquals(1 - maxEntries, range.getValues()[maxEntries - 1]);
+        assertTrue(client.get(0).getFound()[0]); // The connection survived the large frame
+        client.close();
+    }
+
+    /**
+     * Tests that a GET whose response could not fit in one frame is refused with an
+     * error status, while the largest GET that fits is answered.
+     */
+    @Test
+    void testGetAtFrameLimit() throws Exception {
+        int maxKeys = (16 * 1024 * 1024 - 6 - 4) / 5; // (MAX_FRAME - RESPONSE_HEADER - count) / entry
+        bTree.insert(7, 70);
+        IndexClient client = new IndexClient("localhost", server.getPort());
+
+        int[] keys = new int[maxKeys + 1];
+        keys[0] = 7;
+        assertFalse(client.get(keys).isOk());
+
+        IndexClient.Response get = client.get(Arrays.copyOf(keys, maxKeys));
+        assertTrue(get.isOk());
+        assertEquals(maxKeys, get.getCount());
+        assertTrue(get.getFound()[0]);
+        assertEquals(70, get.getValues()[0]);
+        client.close();
+    }
+
+    /**
+     * Tests that an exception while handling one connection's request closes only that
+     * connection and the server keeps serving the others. The tree's delete listener
+     * throws, so any DELETE of a missing key fails inside the server.
+     */
+    @Test
+    void testFailingRequestClosesOnlyItsConnection() throws Exception {
+        bTree.insert(1, 10);
+        bTree.setDeleteListener(key -> {
+            throw new IllegalStateException("listener failed on " + key);
+        });
+        IndexClient failing = new IndexClient("localhost", server.getPort());
+        IndexClient healthy = new IndexClient("localhost", server.getPort());
+        assertTrue(healthy.get(1).isOk());
+
+        IndexClient fresh = new IndexClient("localhost", server.getPort());
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            assertThrows(EOFException.class, () -> failing.delete(2));
+            IndexClient.Response get = healthy.get(1);
+            assertTrue(get.getFound()[0]);
+            assertEquals(10, get.getValues()[0]);
+            assertTrue(fresh.delete(1).getFound()[0]);
+        });
+        failing.close();
+        healthy.close();
+        fresh.close();
+    }
+
+    /**
+     * Tests that a client which pipelines requests without reading the responses makes the
+     * server stop decoding, instead of buffering every response, and that all responses
+     * still arrive in order once the client reads.
+     */
+    @Test
+    void testBackpressure() throws Exception {
+        int keys = 50000;
+        for (int i = 0; i < keys; i++) bTree.insert(i, i);
+        IndexClient client = new IndexClient("localhost", server.getPort());
+        int frames = 300; // About 400 KB of response per frame, far more than the socket buffers hold
+        int[] ids = new int[frames];
+        for (int f = 0; f < frames; f++) ids[f] = client.sendRange(0, keys - 1, keys);
+        client.flush();
+
+        // All requests fit in one input buffer; only a few responses may be decoded ahead
+        Thread.sleep(300);
+        long decoded = server.getFrameCount();
+        assertTrue(decoded < 50, "decoded " + decoded + " frames while the client was not reading");
+
+        for (int f = 0; f < frames; f++) {
+            IndexClient.Response response = client.receive();
+            assertEquals(ids[f], response.getRequestId());
+            assertEquals(keys, response.getCount());
+        }
+        assertEquals(frames, server.getFrameCount());
+        client.close();
+    }
+
+    /**
+     * Opens hundreds of loopback connections (see CONNECTIONS) and drives pipelined batched GETs from a few
+     * client threads, reporting throughput and per-frame latency percentiles.
+     */
+    @Test
+    void testLoadManyConnections() throws Exception {
+        Random random = new Random(42);
+        for (int i = 0; i < KEY_SPACE; i++) bTree.insert(i, random.nextInt());
+
+        List<IndexClient> clients = new ArrayList<>();
+        for (int i = 0; i < CONNECTIONS; i++) clients.add(new IndexClient("localhost", server.getPort()));
+
+        long[] latencies = new long[CONNECTIONS * ROUNDS * PIPELINE_DEPTH];
+        AtomicLong found = new AtomicLong();
+        Thread[] threads = new Thread[CLIENT_THREADS];
+        Throwable[] failure = new Throwable[1];
+        long startTime = System.nanoTime();
+        for (int t = 0; t < CLIENT_THREADS; t++) {
+            int threadId = t;
+            threads[t] = new Thread(() -> {
+                try {
+                    runClients(clients, threadId, latencies, found);
+                } catch (Throwable e) {
+                    failure[0] = e;
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+        long totalTime = System.nanoTime() - startTime;
+        for (IndexClient client : clients) client.close();
+        if (failure[0] != null) fail(failure[0]);
+
+        long frames = (long) latencies.length;
+        assertEquals(frames * KEYS_PER_FRAME, found.get());
+        Arrays.sort(latencies);
+        System.out.printf("Index server | Connections: %d | Frames: %d | Keys per frame: %d | Pipeline depth: %d\n",
+                CONNECTIONS, frames, KEYS_PER_FRAME, PIPELINE_DEPTH);
+        System.out.printf("Throughput   | Frames/s: %.0f | Keys/s: %.0f\n",
+                frames / (totalTime / 1e9), frames * KEYS_PER_FRAME / (totalTime / 1e9));
+        System.out.printf("Latency (us) | p50: %.1f | p99: %.1f | p99.9: %.1f | max: %.1f\n",
+                percentile(latencies, 0.5) / 1e3, percentile(latencies, 0.99) / 1e3,
+                percentile(latencies, 0.999) / 1e3, latencies[latencies.length - 1] / 1e3);
+        System.out.println("------------------------------------------------------");
+    }
+
+    /**
+     * Each round, pipelines PIPELINE_DEPTH GET frames on every connection owned by this
+     * thread, then collects all responses and records each frame's latency.
+     */
+    private void runClients(List<IndexClient> clients, int threadId, long[] latencies, AtomicLong found)
+            throws Exception {
+        Random random = new Random(threadId);
+        int[] keys = new int[KEYS_PER_FRAME];
+        long[] sentAt = new long[clients.size()];
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int c = threadId; c < clients.size(); c += CLIENT_THREADS) {
+                IndexClient client = clients.get(c);
+                for (int d = 0; d < PIPELINE_DEPTH; d++) {
+                    for (int i = 0; i < KEYS_PER_FRAME; i++) keys[i] = random.nextInt(KEY_SPACE);
+                    client.sendGet(keys);
+                }
+                sentAt[c] = System.nanoTime();
+                client.flush();
+            }
+            for (int c = threadId; c < clients.size(); c += CLIENT_THREADS) {
+                IndexClient client = clients.get(c);
+                for (int d = 0; d < PIPELINE_DEPTH; d++) {
+                    IndexClient.Response response = client.receive();
+                    latencies[(round * clients.size() + c) * PIPELINE_DEPTH + d] = System.nanoTime() - sentAt[c];
+                    for (boolean hit : response.getFound()) if (hit) found.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) (p * sorted.length))];
+    }
+}
@@ -0,0 +1,140 @@
+package com.database;
+import com.database.indexing.BTree;
+import com.database.indexing.LSMTree;
+import org.junit.jupiter.api.Test;
+import java.util.Random;
+import java.util.TreeSet;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the LSMTree write path, tombstones and compaction.
+ */
+public class LSMTreeTest {
+    private static final int[] TEST_SIZES = {100000, 500000};
+
+    /**
+     * Tests that inserted keys are found across memtable and runs.
+     */
+    @Test
+    void testInsertAndSearch() {
+        LSMTree lsm = new LSMTree(16, 4);
+        for (int i = 0; i < 1000; i++) {
+            lsm.insert(i * 3);
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(lsm.search(i * 3));
+            assertFalse(lsm.search(i * 3 + 1));
+        }
+        assertTrue(lsm.getFlushCount() > 0);
+        assertTrue(lsm.getCompactionCount() > 0);
+        assertTrue(lsm.getRunCount() < 4 * lsm.getLevelCount()); // Every level stays below the fanout
+    }
+
+    /**
+     * Tests that tombstones hide older versions of a key in earlier runs.
+     */
+    @Test
+    void testDeleteShadowsOlderRuns() {
+        LSMTree lsm = new LSMTree(4, 2);
+        for (int i = 0; i < 100; i++) {
+            lsm.insert(i);
+        }
+        for (int i = 0; i < 100; i += 2) {
+            lsm.delete(i);
+        }
+        lsm.flush();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i % 2 == 1, lsm.search(i));
+        }
+        lsm.insert(10); // Re-insert after delete
+        assertTrue(lsm.search(10));
+    }
+
+    /**
+     * Tests random inserts and deletes against a TreeSet, with inline and background compaction.
+     */
+    @Test
+    void testRandomOperationsMatchTreeSet() {
+        for (boolean background : new boolean[]{false, true}) {
+            LSMTree lsm = new LSMTree(64, 3, background);
+            TreeSet<Integer> reference = new TreeSet<>();
+            Random random = new Random(11);
+            for (int i = 0; i < 50000; i++) {
+                int key = random.nextInt(5000);
+                if (random.nextInt(3) == 0) {
+                    lsm.delete(key);
+                    reference.remove(key);
+                } else {
+                    lsm.insert(key);
+                    reference.add(key);
+                }
+            }
+            lsm.awaitCompaction();
+            // No level is left at the fanout, even when a flush raced with the end of a compaction
+            assertTrue(lsm.getRunCount() <= lsm.getLevelCount() * 2);
+            for (int key = 0; key < 5000; key++) {
+                assertEquals(reference.contains(key), lsm.search(key));
+            }
+            lsm.close();
+        }
+    }
+
+    /**
+     * Tests that writes after close() are rejected with IllegalStateException instead of
+     * failing inside the shut-down compactor, and that the tree stays readable.
+     */
+    @Test
+    void testWritesAfterCloseAreRejected() {
+        for (boolean background : new boolean[]{false, true}) {
+            LSMTree lsm = new LSMTree(4, 2, background);
+            for (int i = 0; i < 100; i++) lsm.insert(i);
+            lsm.close();
+
+            assertThrows(IllegalStateException.class, () -> lsm.insert(100));
+            assertThrows(IllegalStateException.class, () -> lsm.delete(0));
+            assertThrows(IllegalStateException.class, lsm::flush);
+            for (int i = 0; i < 100; i++) assertTrue(lsm.search(i));
+            assertFalse(lsm.search(100));
+            lsm.close(); // Closing twice is harmless
+        }
+    }
+
+    /**
+     * Compares random-insert throughput and search time of the LSM tree and the B-Tree.
+     */
+    @Test
+    void testWritePerformance() {
+        for (int size : TEST_SIZES) {
+            Random random = new Random(size);
+            int[] dataset = new int[size];
+            for (int i = 0; i < size; i++) dataset[i] = random.nextInt(Integer.MAX_VALUE);
+
+            BTree bTree = new BTree(3);
+            long startTime = System.nanoTime();
+            for (int key : dataset) bTree.insert(key);
+            long bTreeInsertTime = System.nanoTime() - startTime;
+
+            LSMTree lsm = new LSMTree(4096, 4, true);
+            startTime = System.nanoTime();
+            for (int key : dataset) lsm.insert(key);
+            long lsmInsertTime = System.nanoTime() - startTime;
+            lsm.awaitCompaction();
+
+            startTime = System.nanoTime();
+            for (int i = 0; i < 10000; i++) bTree.search(dataset[i]);
+            long bTreeSearchTime = System.nanoTime() - startTime;
+
+            startTime = System.nanoTime();
+            for (int i = 0; i < 10000; i++) lsm.search(dataset[i]);
+            long lsmSearchTime = System.nanoTime() - startTime;
+            lsm.close();
+
+            System.out.printf("Random inserts | Size: %d\n", size);
+            System.out.printf("Insertion (ms) | BTree: %.4f | LSM: %.4f\n",
+                    bTreeInsertTime / 1e6, lsmInsertTime / 1e6);
+            System.out.printf("Search (ms)    | BTree: %.4f | LSM: %.4f (%d runs, %d levels)\n",
+                    bTreeSearchTime / 1e6, lsmSearchTime / 1e6, lsm.getRunCount(), lsm.getLevelCount());
+            System.out.println("------------------------------------------------------");
+        }
+    }
+}
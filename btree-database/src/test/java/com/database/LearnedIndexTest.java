@@ -0,0 +1,98 @@
+package com.database;
+import com.database.indexing.BTree;
+import com.database.indexing.LearnedIndex;
+import org.junit.jupiter.api.Test;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the LearnedIndex built over frozen BTree key sets.
+ */
+public class LearnedIndexTest {
+    private static final int[] TEST_SIZES = {100000, 500000};
+    private static final int SEARCH_SIZE = 100000;
+
+    /**
+     * Tests contains, lowerBound and ranges against a TreeSet on random keys.
+     */
+    @Test
+    void testMatchesTreeSet() {
+        Random random = new Random(9);
+        BTree bTree = new BTree(3);
+        TreeSet<Integer> reference = new TreeSet<>();
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(1000000) - 500000;
+            bTree.insert(key);
+            reference.add(key);
+        }
+        int[] sorted = reference.stream().mapToInt(Integer::intValue).toArray();
+        for (int epsilon : new int[]{1, 8, 64}) {
+            LearnedIndex index = new LearnedIndex(bTree, epsilon);
+            assertEquals(reference.size(), index.size());
+            for (int i = 0; i < 20000; i++) {
+                int key = random.nextInt(1100000) - 550000;
+                assertEquals(reference.contains(key), index.contains(key));
+                int expected = Arrays.binarySearch(sorted, key);
+                assertEquals(expected >= 0 ? expected : -expected - 1, index.lowerBound(key));
+            }
+            assertEquals(reference.subSet(-1000, true, 1000, true).size(), index.countRange(-1000, 1000));
+            int[] range = index.range(0, 5000);
+            assertEquals(reference.subSet(0, true, 5000, true).size(), range.length);
+            for (int key : range) assertTrue(key >= 0 && key <= 5000);
+        }
+    }
+
+    /**
+     * Tests edge cases: empty tree, extreme keys and duplicates.
+     */
+    @Test
+    void testEdgeCases() {
+        LearnedIndex empty = new LearnedIndex(new BTree(3), 4);
+        assertFalse(empty.contains(0));
+        assertEquals(0, empty.lowerBound(42));
+        assertEquals(0, empty.range(Integer.MIN_VALUE, Integer.MAX_VALUE).length);
+
+        LearnedIndex index = new LearnedIndex(new int[]{Integer.MIN_VALUE, -1, -1, 0, 7, 7, Integer.MAX_VALUE}, 1);
+        assertEquals(5, index.size());
+        assertTrue(index.contains(Integer.MIN_VALUE));
+        assertTrue(index.contains(Integer.MAX_VALUE));
+        assertFalse(index.contains(6));
+        assertEquals(4, index.lowerBound(8));
+        assertEquals(5, index.countRange(Integer.MIN_VALUE, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Compares lookup time and memory of the learned index with BTree.search().
+     */
+    @Test
+    void testLookupPerformance() {
+        for (int size : TEST_SIZES) {
+            Random random = new Random(size);
+            BTree bTree = new BTree(3);
+            for (int i = 0; i < size; i++) bTree.insert(random.nextInt(Integer.MAX_VALUE));
+            LearnedIndex index = new LearnedIndex(bTree, 32);
+
+            int[] searchKeys = new int[SEARCH_SIZE];
+            for (int i = 0; i < SEARCH_SIZE; i++) {
+                searchKeys[i] = i % 2 == 0 ? index.getKey(random.nextInt(index.size())) : random.nextInt(Integer.MAX_VALUE);
+            }
+
+            long startTime = System.nanoTime();
+            for (int key : searchKeys) bTree.search(key);
+            long bTreeSearchTime = System.nanoTime() - startTime;
+
+            startTime = System.nanoTime();
+            for (int key : searchKeys) index.contains(key);
+            long learnedSearchTime = System.nanoTime() - startTime;
+
+            System.out.printf("Learned index | Size: %d | Segments: %d\n", size, index.getSegmentCount());
+            System.out.printf("Search (ms)   | BTree: %.4f | Learned: %.4f\n",
+                    bTreeSearchTime / 1e6, learnedSearchTime / 1e6);
+            System.out.printf("Memory        | BTree nodes: %d | Model: %d bytes | Model + keys: %d bytes\n",
+                    bTree.getNodeCount(), index.getModelMemoryBytes(), index.getMemoryBytes());
+            System.out.println("------------------------------------------------------");
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.database;
+import com.database.indexing.BTree;
+import com.database.indexing.LookupCache;
+import org.junit.jupiter.api.Test;
+import java.util.Random;
+import java.util.TreeSet;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the LookupCache and the cached BTree search path.
+ */
+public class LookupCacheTest {
+    private static final int KEY_SPACE = 100000;
+    private static final int LOOKUPS = 1000000;
+
+    /**
+     * Tests basic put/get/invalidate behavior of the cache.
+     */
+    @Test
+    void testPutGetInvalidate() {
+        LookupCache cache = new LookupCache(4);
+        assertEquals(LookupCache.NOT_CACHED, cache.get(1));
+        cache.put(1, true);
+        cache.put(2, false);
+        assertEquals(LookupCache.PRESENT, cache.get(1));
+        assertEquals(LookupCache.ABSENT, cache.get(2));
+        cache.invalidate(1);
+        assertEquals(LookupCache.NOT_CACHED, cache.get(1));
+        assertEquals(LookupCache.ABSENT, cache.get(2));
+        assertEquals(1, cache.size());
+    }
+
+    /**
+     * Tests that CLOCK eviction keeps recently referenced keys.
+     */
+    @Test
+    void testEvictionKeepsReferencedKeys() {
+        LookupCache cache = new LookupCache(3);
+        cache.put(1, true);
+        cache.put(2, true);
+        cache.put(3, true);
+        cache.get(1); // Give key 1 a second chance
+        cache.put(4, true);
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(LookupCache.PRESENT, cache.get(1));
+        assertEquals(LookupCache.NOT_CACHED, cache.get(2));
+    }
+
+    /**
+     * Tests that a cached BTree stays coherent with inserts and deletes.
+     */
+    @Test
+    void testCachedTreeStaysCoherent() {
+        BTree bTree = new BTree(3);
+        bTree.enableCache(64);
+        TreeSet<Integer> reference = new TreeSet<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(500);
+            int op = random.nextInt(3);
+            if (op == 0 && !reference.contains(key)) {
+                bTree.insert(key);
+                reference.add(key);
+            } else if (op == 1 && reference.contains(key)) {
+                bTree.delete(key);
+                reference.remove(key);
+            } else {
+                assertEquals(reference.contains(key), bTree.search(key));
+            }
+        }
+        assertTrue(bTree.getCache().getHitCount() > 0);
+        assertTrue(bTree.getCache().size() <= 64);
+    }
+
+    /**
+     * Compares search time of a plain and a cached BTree on a Zipfian lookup stream.
+     */
+    @Test
+    void testZipfianLookupPerformance() {
+        BTree plain = new BTree(3);
+        BTree cached = new BTree(3);
+        for (int i = 0; i < KEY_SPACE; i++) {
+            plain.insert(i);
+            cached.insert(i);
+        }
+        cached.enableCache(KEY_SPACE / 100);
+        int[] lookups = generateZipfian(LOOKUPS, KEY_SPACE, 0.99, new Random(1));
+
+        long startTime = System.nanoTime();
+        for (int key : lookups) plain.search(key);
+        long plainTime = System.nanoTime() - startTime;
+
+        startTime = System.nanoTime();
+        for (int key : lookups) cached.search(key);
+        long cachedTime = System.nanoTime() - startTime;
+
+        LookupCache cache = cached.getCache();
+        System.out.printf("Zipfian search (ms) | BTree: %.4f | BTree + cache: %.4f\n",
+                plainTime / 1e6, cachedTime / 1e6);
+        System.out.printf("Cache | capacity: %d | hit rate: %.4f | evictions: %d\n",
+                cache.getCapacity(), cache.getHitRate(), cache.getEvictionCount());
+        assertTrue(cache.getHitRate() > 0.4);
+    }
+
+    /**
+     * Generates keys following a Zipf distribution over [0, keySpace).
+     * Ranks are scrambled so hot keys are spread across the tree.
+     * @param count Number of keys to generate.
+     * @param keySpace Number of distinct keys.
+     * @param skew Zipf exponent.
+     * @param random Random source.
+     * @return Generated keys.
+     */
+    private int[] generateZipfian(int count, int keySpace, double skew, Random random) {
+        double[] cdf = new double[keySpace];
+        double sum = 0;
+        for (int i = 0; i < keySpace; i++) {
+            sum += 1.0 / Math.pow(i + 1, skew);
+            cdf[i] = sum;
+        }
+        int[] keys = new int[count];
+        for (int i = 0; i < count; i++) {
+            double u = random.nextDouble() * sum;
+            int lo = 0, hi = keySpace - 1;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (cdf[mid] < u) lo = mid + 1;
+                else hi = mid;
+            }
+            keys[i] = (int) ((lo * 2654435761L) % keySpace);
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,259 @@
+package com.database;
+import com.database.indexing.BTree;
+import com.database.indexing.ShardedBTree;
+import org.junit.jupiter.api.Test;
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ShardedBTree and a multi-threaded scaling benchmark against a single locked BTree.
+ */
+public class ShardedBTreeTest {
+    private static final int OPS_PER_THREAD = 200000;
+    private static final int SHARDS = 16;
+
+    /**
+     * Tests both partitionings against a single reference BTree, including ordered range iteration.
+     */
+    @Test
+    void testMatchesSingleTree() {
+        for (ShardedBTree.Partitioning partitioning : ShardedBTree.Partitioning.values()) {
+            Random random = new Random(3);
+            BTree reference = new BTree(4);
+            ShardedBTree sharded = new ShardedBTree(8, 4, partitioning);
+            for (int i = 0; i < 30000; i++) {
+                int key = random.nextInt(20000) - 10000;
+                if (random.nextInt(4) == 0) {
+                    if (reference.search(key)) reference.delete(key);
+                    sharded.delete(key);
+                } else {
+                    reference.insert(key, key * 3);
+                    sharded.insert(key, key * 3);
+                }
+            }
+            sharded.flush();
+            assertSameContents(reference, sharded, random);
+
+            // Rebalancing moves entries between shards without changing the contents
+            sharded.rebalance();
+            assertSameContents(reference, sharded, random);
+            sharded.close();
+        }
+    }
+
+    /**
+     * Tests that rebalance() evens out RANGE shards loaded with a skewed key distribution.
+     */
+    @Test
+    void testRebalanceEvensOutSkew() {
+        ShardedBTree sharded = new ShardedBTree(8, 8, ShardedBTree.Partitioning.RANGE);
+        for (int i = 0; i < 40000; i++) sharded.insert(i, i); // All keys fall into one initial slice
+        sharded.flush();
+        assertEquals(40000, sharded.getShardSize(4));
+
+        sharded.rebalance();
+        for (int i = 0; i < sharded.getShardCount(); i++) assertEquals(5000, sharded.getShardSize(i));
+        assertEquals(40000, sharded.size());
+        assertEquals(1000, sharded.countRange(10000, 10999));
+
+        // New writes are routed by the new split points
+        sharded.insert(-1, -1);
+        sharded.insert(100000, 0);
+        sharded.flush();
+        assertEquals(5001, sharded.getShardSize(0));
+        assertEquals(5001, sharded.getShardSize(7));
+        sharded.close();
+    }
+
+    /**
+     * Tests concurrent writers and readers on disjoint keys.
+     */
+    @Test
+    void testConcurrentWriters() throws Exception {
+        ShardedBTree sharded = new ShardedBTree(4, 8, ShardedBTree.Partitioning.HASH);
+        int threads = 4;
+        int perThread = 20000;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int base = t * perThread;
+            workers.add(new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    sharded.insert(base + i, base + i);
+                    sharded.search(base + i / 2); // Reads run alongside the writers
+                }
+            }));
+        }
+        for (Thread worker : workers) worker.start();
+        for (Thread worker : workers) worker.join();
+        sharded.flush();
+
+        assertEquals(threads * perThread, sharded.size());
+        int[] previous = {-1};
+        sharded.forEachInRange(Integer.MIN_VALUE, Integer.MAX_VALUE, (key, value) -> {
+            assertEquals(previous[0] + 1, key);
+            assertEquals(key, value);
+            previous[0] = key;
+        });
+        sharded.close();
+    }
+
+    /**
+     * Tests that an error in a shard's writer is rethrown by flush(), enqueue and close()
+     * instead of leaving them waiting for a writer that has died. The failure is injected
+     * by removing the shard's tree, so the writer's next insert throws.
+     */
+    @Test
+    void testWriterFailureIsReported() throws Exception {
+        ShardedBTree sharded = new ShardedBTree(1, 3, ShardedBTree.Partitioning.HASH);
+        Field shardsField = ShardedBTree.class.getDeclaredField("shards");
+        shardsField.setAccessible(true);
+        Object shard = ((Object[]) shardsField.get(sharded))[0];
+        Field treeField = shard.getClass().getDeclaredField("tree");
+        treeField.setAccessible(true);
+        treeField.set(shard, null);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            for (int i = 0; i < 10000; i++) {
+                try {
+                    sharded.insert(i, i); // Fills the queue past its capacity after the failure
+                } catch (IllegalStateException e) {
+                    break;
+                }
+            }
+            IllegalStateException failure = assertThrows(IllegalStateException.class, sharded::flush);
+            assertInstanceOf(NullPointerException.class, failure.getCause());
+            assertThrows(IllegalStateException.class, () -> sharded.delete(1));
+            assertThrows(IllegalStateException.class, sharded::close);
+        });
+    }
+
+    /**
+     * Compares multi-threaded insert and lookup throughput of a single synchronized BTree
+     * with hash- and range-partitioned ShardedBTrees.
+     */
+    @Test
+    void testScalingPerformance() throws Exception {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        int[] threadCounts = cpus >= 4 ? new int[]{1, 2, cpus} : new int[]{1, 2, 4};
+        for (int threads : threadCounts) {
+            BTree single = new BTree(16);
+            long singleTime = runWorkload(threads, new Workload() {
+                public void insert(int key) {
+                    synchronized (single) {
+                        single.insert(key, key);
+                    }
+                }
+
+                public boolean search(int key) {
+                    synchronized (single) {
+                        return single.search(key);
+                    }
+                }
+
+                public void flush() {
+                }
+            });
+
+            long[] shardedTimes = new long[2];
+            for (ShardedBTree.Partitioning partitioning : ShardedBTree.Partitioning.values()) {
+                ShardedBTree sharded = new ShardedBTree(SHARDS, 16, partitioning);
+                shardedTimes[partitioning.ordinal()] = runWorkload(threads, new Workload() {
+                    public void insert(int key) {
+                        sharded.insert(key, key);
+                    }
+
+                    public boolean search(int key) {
+                        return sharded.search(key);
+                    }
+
+                    public void flush() {
+                        sharded.flush();
+                    }
+                });
+                assertEquals(threads * OPS_PER_THREAD, sharded.size());
+                sharded.close();
+            }
+
+            long ops = 2L * threads * OPS_PER_THREAD;
+            System.out.printf("Sharded B-Tree | Threads: %d | Shards: %d | Operations: %d\n", threads, SHARDS, ops);
+            System.out.printf("Mops/s         | Single locked: %.2f | Hash: %.2f | Range: %.2f\n",
+                    ops / (singleTime / 1e3), ops / (shardedTimes[0] / 1e3), ops / (shardedTimes[1] / 1e3));
+            System.out.println("------------------------------------------------------");
+        }
+    }
+
+    private interface Workload {
+        void insert(int key);
+
+        boolean search(int key);
+
+        void flush();
+    }
+
+    /**
+     * Each thread inserts its own random keys, then everything is flushed and each thread
+     * looks its keys up again.
+     * @return Elapsed time in nanoseconds.
+     */
+    private long runWorkload(int threads, Workload workload) throws Exception {
+        int[][] keys = new int[threads][OPS_PER_THREAD];
+        for (int t = 0; t < threads; t++) {
+            Random random = new Random(t);
+            for (int i = 0; i < OPS_PER_THREAD; i++) keys[t][i] = random.nextInt(Integer.MAX_VALUE);
+        }
+        boolean[] missing = new boolean[1];
+        long startTime = System.nanoTime();
+        runThreads(threads, t -> {
+            for (int key : keys[t]) workload.insert(key);
+        });
+        workload.flush();
+        runThreads(threads, t -> {
+            for (int key : keys[t]) if (!workload.search(key)) missing[0] = true;
+        });
+        long elapsed = System.nanoTime() - startTime;
+        assertFalse(missing[0]);
+        return elapsed;
+    }
+
+    private interface ThreadBody {
+        void run(int thread);
+    }
+
+    private void runThreads(int threads, ThreadBody body) throws Exception {
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            workers[t] = new Thread(() -> body.run(id));
+            workers[t].start();
+        }
+        for (Thread worker : workers) worker.join();
+    }
+
+    private void assertSameContents(BTree reference, ShardedBTree sharded, Random random) {
+        List<Integer> expected = new ArrayList<>();
+        reference.forEachInRange(Integer.MIN_VALUE, Integer.MAX_VALUE, (key, value) -> expected.add(key));
+        List<Integer> actual = new ArrayList<>();
+        sharded.forEachInRange(Integer.MIN_VALUE, Integer.MAX_VALUE, (key, value) -> {
+            assertEquals(key * 3, value);
+            actual.add(key);
+        });
+        assertEquals(expected, actual);
+        assertEquals(expected.size(), sharded.size());
+
+        for (int q = 0; q < 200; q++) {
+            int key = random.nextInt(24000) - 12000;
+            assertEquals(reference.search(key), sharded.search(key));
+            int high = key + random.nextInt(3000);
+            assertEquals(reference.countRange(key, high), sharded.countRange(key, high));
+            List<Integer> expectedRange = new ArrayList<>();
+            reference.forEachInRange(key, high, (k, v) -> expectedRange.add(k));
+            List<Integer> actualRange = new ArrayList<>();
+            sharded.forEachInRange(key, high, (k, v) -> actualRange.add(k));
+            assertEquals(expectedRange, actualRange);
+        }
+    }
+}
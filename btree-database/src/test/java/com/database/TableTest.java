@@ -0,0 +1,133 @@
+package com.database;
+import com.database.indexing.BTree;
+import com.database.indexing.Table;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the Table layer with primary and secondary B-Tree indexes.
+ */
+public class TableTest {
+    private Table table;
+
+    /**
+     * Creates a table (id, age, salary) with an index on age before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        table = new Table(3, "id", "age", "salary");
+        table.createIndex("age");
+    }
+
+    /**
+     * Tests the key/value entries and range visiting added to BTree for the table layer.
+     */
+    @Test
+    void testBTreeValuesAndRanges() {
+        BTree bTree = new BTree(2);
+        for (int i = 0; i < 100; i++) bTree.insert(i, i * 10);
+        assertEquals(420, bTree.get(42, -1));
+        assertEquals(-1, bTree.get(420, -1));
+        assertTrue(bTree.update(42, 7));
+        assertEquals(7, bTree.get(42, -1));
+        for (int i = 0; i < 100; i += 3) bTree.delete(i);
+        for (int i = 1; i < 100; i++) {
+            if (i % 3 != 0 && i != 42) assertEquals(i * 10, bTree.get(i, -1));
+        }
+        assertEquals(8, bTree.countRange(10, 20)); // 12, 15 and 18 were deleted
+    }
+
+    /**
+     * Tests insert, get, update and delete of rows.
+     */
+    @Test
+    void testRowOperations() {
+        table.insert(1, 30, 5000);
+        table.insert(2, 40, 6000);
+        assertArrayEquals(new int[]{1, 30, 5000}, table.getRow(1));
+        assertEquals(6000, table.get(2, "salary", -1));
+        assertThrows(IllegalArgumentException.class, () -> table.insert(1, 50, 1));
+        assertThrows(IllegalArgumentException.class, () -> table.insert(3, 50));
+
+        assertTrue(table.update(1, "age", 35));
+        assertEquals(0, table.count("age", 30, 30));
+        assertEquals(1, table.count("age", 35, 35));
+
+        assertTrue(table.delete(2));
+        assertFalse(table.delete(2));
+        assertNull(table.getRow(2));
+        assertEquals(0, table.count("age", 40, 40));
+        assertEquals(1, table.size());
+    }
+
+    /**
+     * Tests that queries choose the expected access paths and return the same results as scans.
+     */
+    @Test
+    void testAccessPaths() {
+        for (int id = 0; id < 10000; id++) {
+            table.insert(id, 20 + id % 50, id * 2);
+        }
+        assertEquals(200, table.count("age", 30, 30));
+        assertEquals(Table.AccessPath.INDEX_ONLY, table.getLastAccessPath());
+
+        assertEquals(200, table.selectRowKeys("age", 25, 25).length);
+        assertEquals(Table.AccessPath.INDEX_ONLY, table.getLastAccessPath());
+
+        assertEquals(500, table.count("salary", 0, 999));
+        assertEquals(Table.AccessPath.FULL_SCAN, table.getLastAccessPath());
+
+        // Selective filter on an indexed column: fetch rows through the index
+        long expected = 0;
+        for (int id = 0; id < 10000; id++) if (20 + id % 50 == 21) expected += id * 2;
+        assertEquals(expected, table.sum("salary", "age", 21, 21));
+        assertEquals(Table.AccessPath.INDEX_LOOKUP, table.getLastAccessPath());
+
+        // Unselective filter: a full scan is cheaper
+        expected = 0;
+        for (int id = 0; id < 10000; id++) expected += id * 2;
+        assertEquals(expected, table.sum("salary", "age", 0, 100));
+        assertEquals(Table.AccessPath.FULL_SCAN, table.getLastAccessPath());
+
+        // Summing the indexed column itself never touches rows
+        assertEquals(200L * 30, table.sum("age", "age", 30, 30));
+        assertEquals(Table.AccessPath.INDEX_ONLY, table.getLastAccessPath());
+
+        // Primary key ranges
+        assertEquals(100, table.count("id", 100, 199));
+        assertEquals(Table.AccessPath.INDEX_ONLY, table.getLastAccessPath());
+    }
+
+    /**
+     * Tests that secondary indexes stay consistent under random updates and deletes.
+     */
+    @Test
+    void testIndexesStayConsistent() {
+        Map<Integer, Integer> ages = new HashMap<>();
+        Random random = new Random(13);
+        for (int i = 0; i < 20000; i++) {
+            int id = random.nextInt(2000);
+            int age = random.nextInt(100);
+            int op = random.nextInt(3);
+            if (op == 0 && !ages.containsKey(id)) {
+                table.insert(id, age, 0);
+                ages.put(id, age);
+            } else if (op == 1) {
+                assertEquals(ages.containsKey(id), table.update(id, "age", age));
+                if (ages.containsKey(id)) ages.put(id, age);
+            } else {
+                assertEquals(ages.remove(id) != null, table.delete(id));
+            }
+        }
+        for (int age = 0; age < 100; age++) {
+            int expected = 0;
+            for (int value : ages.values()) if (value == age) expected++;
+            assertEquals(expected, table.count("age", age, age));
+        }
+        assertEquals(ages.size(), table.size());
+    }
+}
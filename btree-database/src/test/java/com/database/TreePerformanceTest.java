@@ -1,6 +1,7 @@
 package com.database;
 
 import com.database.indexing.AVLTree;
+import com.database.indexing.AdaptiveRadixTree;
 import com.database.indexing.BTree;
 import org.junit.jupiter.api.Test;
 import java.util.Random;
@@ -11,7 +12,7 @@ import java.util.Collections;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
- * JUnit 5 Test for AVL, Red-Black (TreeMap), and B-Tree Performance.
+ * JUnit 5 Test for AVL, Red-Black (TreeMap), B-Tree and Adaptive Radix Tree Performance.
  * Measures insertion time, search time, memory usage, tree height, and node count.
  */
 public class TreePerformanceTest {
@@ -19,7 +20,7 @@ public class TreePerformanceTest {
     private static final int SEARCH_SIZE = 10000; // Number of keys used for search tests
 
     /**
-     * Runs performance tests for AVL Tree, Red-Black Tree (TreeMap), and B-Tree.
+     * Runs performance tests for AVL Tree, Red-Black Tree (TreeMap), B-Tree and ART.
      */
     @Test
     public void testPerformance() {
@@ -39,6 +40,7 @@ public class TreePerformanceTest {
         AVLTree avlTree = new AVLTree();
         TreeMap<Integer, Integer> rbTree = new TreeMap<>(); // Java's TreeMap (Red-Black Tree)
         BTree bTree = new BTree(3); // B-Tree with minimum degree 3
+        AdaptiveRadixTree artTree = new AdaptiveRadixTree();
 
         ArrayList<Integer> dataset = generateDataset(dataSize, dataType);
         ArrayList<Integer> searchKeys = new ArrayList<>(dataset.subList(0, Math.min(SEARCH_SIZE, dataset.size())));
@@ -54,25 +56,33 @@ public class TreePerformanceTest {
         // Measure memory usage after insertions
         long memoryAfter = getUsedMemory();
 
+        // ART is measured separately so the memory figure above stays comparable with earlier runs
+        long artInsertTime = measureInsertionTime(artTree, dataset);
+        long artMemoryAfter = getUsedMemory();
+
         // Measure search times for all tree types
         long avlSearchTime = measureSearchTime(avlTree, searchKeys);
         long rbSearchTime = measureSearchTime(rbTree, searchKeys);
         long bTreeSearchTime = measureSearchTime(bTree, searchKeys);
+        long artSearchTime = measureSearchTime(artTree, searchKeys);
 
         // Measure tree height and node count
         int avlHeight = avlTree.getHeight();
         int bTreeHeight = bTree.getHeight();
         int bTreeNodes = bTree.countNodes();
+        int artNodes = artTree.getNodeCount();
 
         // Print performance summary
         System.out.printf("\nDataType: %s | Size: %d\n", dataType, dataSize);
-        System.out.printf("Insertion (ms) | AVL: %.4f | RB: %.4f | BTree: %.4f\n",
-                avlInsertTime / 1e6, rbInsertTime / 1e6, bTreeInsertTime / 1e6);
-        System.out.printf("Search (ms)    | AVL: %.4f | RB: %.4f | BTree: %.4f\n",
-                avlSearchTime / 1e6, rbSearchTime / 1e6, bTreeSearchTime / 1e6);
+        System.out.printf("Insertion (ms) | AVL: %.4f | RB: %.4f | BTree: %.4f | ART: %.4f\n",
+                avlInsertTime / 1e6, rbInsertTime / 1e6, bTreeInsertTime / 1e6, artInsertTime / 1e6);
+        System.out.printf("Search (ms)    | AVL: %.4f | RB: %.4f | BTree: %.4f | ART: %.4f\n",
+                avlSearchTime / 1e6, rbSearchTime / 1e6, bTreeSearchTime / 1e6, artSearchTime / 1e6);
         System.out.printf("Height         | AVL: %d | BTree: %d\n", avlHeight, bTreeHeight);
         System.out.printf("BTree Nodes    | %d\n", bTreeNodes);
+        System.out.printf("ART Nodes      | %d\n", artNodes);
         System.out.printf("Memory Used: %.4f MB\n", (memoryAfter - memoryBefore) / (1024.0 * 1024.0));
+        System.out.printf("ART Memory Used: %.4f MB\n", (artMemoryAfter - memoryAfter) / (1024.0 * 1024.0));
         System.out.println("------------------------------------------------------");
     }
 
@@ -125,6 +135,15 @@ public class TreePerformanceTest {
         return System.nanoTime() - startTime;
     }
 
+    /**
+     * Measures the insertion time for an Adaptive Radix Tree.
+     */
+    private long measureInsertionTime(AdaptiveRadixTree tree, ArrayList<Integer> dataset) {
+        long startTime = System.nanoTime();
+        for (int num : dataset) tree.insert(num);
+        return System.nanoTime() - startTime;
+    }
+
     /**
      * Measures the search time for an AVL Tree.
      */
@@ -152,6 +171,15 @@ public class TreePerformanceTest {
         return System.nanoTime() - startTime;
     }
 
+    /**
+     * Measures the search time for an Adaptive Radix Tree.
+     */
+    private long measureSearchTime(AdaptiveRadixTree tree, ArrayList<Integer> searchKeys) {
+        long startTime = System.nanoTime();
+        for (int num : searchKeys) tree.search(num);
+        return System.nanoTime() - startTime;
+    }
+
     /**
      * Returns the memory usage of the JVM before and after insertions.
      */
@@ -0,0 +1,123 @@
+package com.database;
+import com.database.indexing.BTree;
+import com.database.indexing.VectorizedExecutor;
+import org.junit.jupiter.api.Test;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the VectorizedExecutor and a range-aggregate benchmark against per-key traversal.
+ */
+public class VectorizedExecutorTest {
+    private static final int[] TEST_SIZES = {100000, 1000000};
+    private static final int QUERIES = 20;
+
+    /**
+     * Tests serial and parallel aggregates against per-key traversal on random data with duplicates.
+     */
+    @Test
+    void testMatchesPerKeyTraversal() {
+        Random random = new Random(17);
+        for (int degree : new int[]{2, 3, 16}) {
+            BTree bTree = new BTree(degree);
+            for (int i = 0; i < 50000; i++) {
+                int key = random.nextInt(20000) - 10000;
+                bTree.insert(key, random.nextInt(1000) - 500);
+            }
+            VectorizedExecutor serial = new VectorizedExecutor(bTree, 64, 1);
+            VectorizedExecutor parallel = new VectorizedExecutor(bTree, 64, 4);
+            for (int q = 0; q < 200; q++) {
+                int low = random.nextInt(24000) - 12000;
+                int high = low + random.nextInt(q % 10 == 0 ? 30000 : 500);
+                long[] expected = scan(bTree, low, high);
+
+                VectorizedExecutor.Aggregate result = serial.aggregate(low, high);
+                assertEquals(expected[0], result.getCount());
+                assertEquals(expected[1], result.getSum());
+                if (expected[0] > 0) {
+                    assertEquals(expected[2], result.getMin());
+                    assertEquals(expected[3], result.getMax());
+                }
+
+                VectorizedExecutor.Aggregate parallelResult = parallel.aggregateParallel(low, high);
+                assertEquals(expected[0], parallelResult.getCount());
+                assertEquals(expected[1], parallelResult.getSum());
+            }
+            parallel.close();
+        }
+    }
+
+    /**
+     * Tests empty trees, empty ranges and extreme bounds.
+     */
+    @Test
+    void testEdgeCases() {
+        BTree bTree = new BTree(3);
+        VectorizedExecutor executor = new VectorizedExecutor(bTree);
+        assertEquals(0, executor.aggregate(Integer.MIN_VALUE, Integer.MAX_VALUE).getCount());
+        for (int i = 0; i < 100; i++) bTree.insert(i, 1);
+        assertEquals(0, executor.aggregate(50, 10).getCount());
+        assertEquals(100, executor.aggregate(Integer.MIN_VALUE, Integer.MAX_VALUE).getCount());
+        assertEquals(0, executor.aggregate(100, Integer.MAX_VALUE).getCount());
+        assertEquals(1, executor.aggregate(99, 99).getSum());
+    }
+
+    /**
+     * Compares range-aggregate throughput of per-key traversal with serial and parallel batches.
+     */
+    @Test
+    void testRangeAggregatePerformance() {
+        for (int size : TEST_SIZES) {
+            Random random = new Random(size);
+            BTree bTree = new BTree(16);
+            for (int i = 0; i < size; i++) bTree.insert(random.nextInt(Integer.MAX_VALUE), random.nextInt(1000));
+            int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+            VectorizedExecutor executor = new VectorizedExecutor(bTree, VectorizedExecutor.DEFAULT_BATCH_SIZE, threads);
+            int low = Integer.MAX_VALUE / 4;
+            int high = low + Integer.MAX_VALUE / 2; // About half of the keys
+
+            // Warm up all three paths before timing
+            scan(bTree, low, high);
+            executor.aggregate(low, high);
+            executor.aggregateParallel(low, high);
+
+            long startTime = System.nanoTime();
+            long perKeySum = 0;
+            for (int q = 0; q < QUERIES; q++) perKeySum += scan(bTree, low, high)[1];
+            long perKeyTime = System.nanoTime() - startTime;
+
+            startTime = System.nanoTime();
+            long batchSum = 0;
+            for (int q = 0; q < QUERIES; q++) batchSum += executor.aggregate(low, high).getSum();
+            long batchTime = System.nanoTime() - startTime;
+
+            startTime = System.nanoTime();
+            long parallelSum = 0;
+            for (int q = 0; q < QUERIES; q++) parallelSum += executor.aggregateParallel(low, high).getSum();
+            long parallelTime = System.nanoTime() - startTime;
+            executor.close();
+
+            assertEquals(perKeySum, batchSum);
+            assertEquals(perKeySum, parallelSum);
+            System.out.printf("Range aggregate | Size: %d | Queries: %d | Threads: %d\n", size, QUERIES, threads);
+            System.out.printf("Time (ms)       | Per-key: %.4f | Batched: %.4f | Parallel: %.4f\n",
+                    perKeyTime / 1e6, batchTime / 1e6, parallelTime / 1e6);
+            System.out.println("------------------------------------------------------");
+        }
+    }
+
+    /**
+     * Per-key reference: visits every entry in the range through forEachInRange().
+     * @return {count, sum, min, max} of the values.
+     */
+    private long[] scan(BTree bTree, int low, int high) {
+        long[] result = {0, 0, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        bTree.forEachInRange(low, high, (key, value) -> {
+            result[0]++;
+            result[1] += value;
+            result[2] = Math.min(result[2], value);
+            result[3] = Math.max(result[3], value);
+        });
+        return result;
+    }
+}
@@ -0,0 +1,181 @@
+package com.database;
+import com.database.indexing.VersionedBTree;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the VersionedBTree and a benchmark of writer throughput under concurrent snapshot readers.
+ */
+public class VersionedBTreeTest {
+    private static final int KEYS = 1000;
+    private static final int WRITES = 500000;
+
+    /**
+     * Tests point reads at every version of one key's history.
+     */
+    @Test
+    void testTimeTravelSingleKey() {
+        VersionedBTree tree = new VersionedBTree(3);
+        long v1 = tree.put(7, 10);
+        long v2 = tree.put(7, 20);
+        assertTrue(tree.delete(7));
+        long v3 = tree.getVersion();
+        assertFalse(tree.delete(7));
+        assertEquals(v3, tree.getVersion()); // A failed delete does not consume a version
+        long v4 = tree.put(7, -1);
+
+        assertFalse(tree.searchAsOf(7, v1 - 1));
+        assertEquals(10, tree.getAsOf(7, v1, 0));
+        assertEquals(20, tree.getAsOf(7, v2, 0));
+        assertFalse(tree.searchAsOf(7, v3));
+        assertEquals(-1, tree.getAsOf(7, v4, 0)); // Negative values are not mistaken for absence
+        assertTrue(tree.searchAsOf(7, v4));
+        assertEquals(-1, tree.get(7, 0));
+    }
+
+    /**
+     * Tests range scans at past versions against copies of a reference map taken at those versions.
+     */
+    @Test
+    void testRangeScansAsOf() {
+        Random random = new Random(5);
+        VersionedBTree tree = new VersionedBTree(4);
+        TreeMap<Integer, Integer> reference = new TreeMap<>();
+        List<Long> versions = new ArrayList<>();
+        List<TreeMap<Integer, Integer>> states = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(3000) - 1500;
+            if (random.nextInt(3) == 0) {
+                assertEquals(reference.remove(key) != null, tree.delete(key));
+            } else {
+                int value = random.nextInt();
+                tree.put(key, value);
+                reference.put(key, value);
+            }
+            if (i % 1000 == 999) {
+                versions.add(tree.getVersion());
+                states.add(new TreeMap<>(reference));
+            }
+        }
+
+        for (int s = 0; s < versions.size(); s++) {
+            TreeMap<Integer, Integer> state = states.get(s);
+            assertEquals(new ArrayList<>(state.entrySet()), scan(tree, Integer.MIN_VALUE, Integer.MAX_VALUE, versions.get(s)));
+            assertEquals(new ArrayList<>(state.subMap(-200, true, 300, true).entrySet()), scan(tree, -200, 300, versions.get(s)));
+            for (int key = -1500; key < 1500; key += 7) {
+                assertEquals(state.containsKey(key), tree.searchAsOf(key, versions.get(s)));
+            }
+        }
+    }
+
+    /**
+     * Tests that garbage collection keeps what open snapshots can see and reclaims the rest.
+     */
+    @Test
+    void testGarbageCollection() {
+        VersionedBTree tree = new VersionedBTree(3);
+        for (int key = 0; key < KEYS; key++) tree.put(key, 0);
+        VersionedBTree.Snapshot snapshot = tree.openSnapshot();
+        for (int round = 1; round <= 5; round++) {
+            for (int key = 0; key < KEYS; key++) tree.put(key, round);
+        }
+        for (int key = 0; key < KEYS; key += 2) tree.delete(key);
+        assertEquals(6 * KEYS, tree.getVersionCount());
+
+        // Versions newer than the snapshot are kept; only those before it can go
+        assertEquals(0, tree.collectGarbage());
+        for (int key = 0; key < KEYS; key++) assertEquals(0, snapshot.get(key, -1));
+
+        snapshot.close();
+        assertEquals(5 * KEYS + KEYS / 2, tree.collectGarbage());
+        assertEquals(KEYS / 2, tree.getVersionCount());
+        for (int key = 0; key < KEYS; key++) assertEquals(key % 2 == 1, tree.search(key));
+        assertThrows(IllegalArgumentException.class, () -> tree.getAsOf(1, snapshot.getVersion(), 0));
+        assertThrows(IllegalArgumentException.class, () -> tree.openSnapshot(snapshot.getVersion()));
+
+        // Reclaimed entries are reused
+        for (int key = 0; key < KEYS; key += 2) tree.put(key, 9);
+        assertEquals(KEYS, tree.getVersionCount());
+        assertEquals(9, tree.get(0, -1));
+    }
+
+    /**
+     * Runs snapshot readers against a writer with background garbage collection. Each
+     * snapshot must see a consistent state, and the writer's throughput is reported
+     * with and without readers.
+     */
+    @Test
+    void testReadersDoNotBlockWriters() throws Exception {
+        long aloneTime = runWriter(0, new AtomicLong());
+        AtomicLong snapshotsRead = new AtomicLong();
+        int readers = 2;
+        long withReadersTime = runWriter(readers, snapshotsRead);
+
+        System.out.printf("MVCC writer | Writes: %d | Keys: %d | Readers: %d | Snapshots read: %d\n",
+                WRITES, KEYS, readers, snapshotsRead.get());
+        System.out.printf("Writes/ms   | Alone: %.1f | With readers: %.1f\n",
+                WRITES / (aloneTime / 1e6), WRITES / (withReadersTime / 1e6));
+        System.out.println("------------------------------------------------------");
+    }
+
+    /**
+     * The writer updates keys round-robin with the round number as value, so at any version
+     * the values seen in key order are one round for a prefix and the previous round after it.
+     * @return Writer time in nanoseconds.
+     */
+    private long runWriter(int readers, AtomicLong snapshotsRead) throws Exception {
+        VersionedBTree tree = new VersionedBTree(16);
+        for (int key = 0; key < KEYS; key++) tree.put(key, 0);
+        tree.startGarbageCollector(5);
+        AtomicBoolean done = new AtomicBoolean();
+        Throwable[] failure = new Throwable[1];
+        List<Thread> threads = new ArrayList<>();
+        for (int r = 0; r < readers; r++) {
+            threads.add(new Thread(() -> {
+                try {
+                    while (!done.get()) {
+                        VersionedBTree.Snapshot snapshot = tree.openSnapshot();
+                        int[] previous = {Integer.MAX_VALUE, Integer.MIN_VALUE};
+                        snapshot.forEachInRange(0, KEYS - 1, (key, value) -> {
+                            assertTrue(value <= previous[0]);
+                            previous[0] = value;
+                            previous[1] = Math.max(previous[1], value);
+                        });
+                        assertTrue(previous[1] - previous[0] <= 1);
+                        assertEquals(previous[1], snapshot.get(0, -1));
+                        snapshot.close();
+                        snapshotsRead.incrementAndGet();
+                    }
+                } catch (Throwable e) {
+                    failure[0] = e;
+                }
+            }));
+        }
+        for (Thread thread : threads) thread.start();
+
+        long startTime = System.nanoTime();
+        for (int i = 0; i < WRITES; i++) tree.put(i % KEYS, i / KEYS + 1);
+        long elapsed = System.nanoTime() - startTime;
+        done.set(true);
+        for (Thread thread : threads) thread.join();
+        tree.close();
+        if (failure[0] != null) fail(failure[0]);
+
+        tree.collectGarbage();
+        assertEquals(KEYS, tree.getVersionCount());
+        return elapsed;
+    }
+
+    private List<Map.Entry<Integer, Integer>> scan(VersionedBTree tree, int low, int high, long version) {
+        List<Map.Entry<Integer, Integer>> entries = new ArrayList<>();
+        tree.forEachInRangeAsOf(low, high, version, (key, value) -> entries.add(Map.entry(key, value)));
+        return entries;
+    }
+}